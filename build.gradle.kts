@@ -35,6 +35,8 @@ plugins {
     id("org.jetbrains.intellij.platform") version "2.5.0"
     // Gradle Changelog Plugin
     id("org.jetbrains.changelog") version "2.2.1"
+    // JMH benchmarks in src/jmh
+    id("me.champeau.jmh") version "0.7.3"
 
 
 }
@@ -113,6 +115,20 @@ intellijPlatform {
 }
 
 
+// Configure JMH - run with ./gradlew jmh, results are written to build/results/jmh/results.json
+jmh {
+    jmhVersion = "1.37"
+    // Benchmarks set up light IntelliJ projects with the test framework, like the tests do
+    includeTests = true
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    timeUnit = "ms"
+    resultFormat = "JSON"
+    // The forked JVM needs the same IDE system properties as the test task
+    jvmArgsAppend.addAll(provider { tasks.test.get().allJvmArgs })
+}
+
 // Configure Gradle Changelog Plugin - read more: https://github.com/JetBrains/gradle-changelog-plugin
 changelog {
     version.set(properties("pluginVersion"))
@@ -146,7 +162,13 @@ tasks {
             events("passed", "skipped", "failed")
         }
 
-        useJUnitPlatform()
+        useJUnitPlatform {
+            excludeTags("performance")
+        }
+    }
+
+    check {
+        dependsOn("testPerformance")
     }
 
     runIde {
@@ -169,6 +191,24 @@ val runIdeForUiTests by intellijPlatformTesting.runIde.registering {
         robotServerPlugin()
     }
 }
+// Performance tier: tests tagged "performance" assert time budgets on large generated projects
+val testPerformance by intellijPlatformTesting.testIde.registering {
+    task {
+        useJUnitPlatform {
+            includeTags("performance")
+        }
+        maxHeapSize = "4g"
+        // budgets can be scaled on slower machines, e.g. -Pdgs.performance.budget.scale=2
+        val budgetScale = providers.gradleProperty("dgs.performance.budget.scale")
+            .orElse(providers.systemProperty("dgs.performance.budget.scale"))
+        budgetScale.orNull?.let { systemProperty("dgs.performance.budget.scale", it) }
+        testLogging {
+            exceptionFormat = TestExceptionFormat.FULL
+            showStandardStreams = true
+            events("passed", "skipped", "failed")
+        }
+    }
+}
 tasks.named<RunIdeTask>("runIde") {
     jvmArgumentProviders += CommandLineArgumentProvider {
         listOf("-Didea.kotlin.plugin.use.k2=true")
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin.benchmark
+
+import com.intellij.openapi.application.runReadAction
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiManager
+import com.intellij.testFramework.PsiTestUtil
+import com.intellij.testFramework.fixtures.IdeaTestFixtureFactory
+import com.intellij.testFramework.fixtures.JavaCodeInsightTestFixture
+import com.intellij.testFramework.fixtures.JavaTestFixtureFactory
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase
+import com.intellij.testFramework.runInEdtAndWait
+import com.netflix.dgs.plugin.SyntheticDgsProject
+
+/**
+ * A light IntelliJ project with the DGS library, filled with the files of a [SyntheticDgsProject].
+ */
+class DgsBenchmarkFixture(val project: SyntheticDgsProject) {
+    val fixture: JavaCodeInsightTestFixture
+    val files: List<PsiFile>
+
+    init {
+        val projectFixture = IdeaTestFixtureFactory.getFixtureFactory()
+            .createLightFixtureBuilder(LightJavaCodeInsightFixtureTestCase.JAVA_21, "dgs-benchmark").fixture
+        fixture = JavaTestFixtureFactory.getFixtureFactory().createCodeInsightFixture(projectFixture)
+
+        var added = emptyList<PsiFile>()
+        runInEdtAndWait {
+            fixture.setUp()
+            PsiTestUtil.addLibrary(fixture.projectDisposable, fixture.module, "com.netflix.graphql.dgs:graphql-dgs", "src/test/testdata/lib/", "graphql-dgs-4.9.2.jar")
+            added = project.files().map { (path, text) -> fixture.addFileToProject(path, text) }
+        }
+        files = added
+    }
+
+    fun <T> read(action: () -> T): T = runReadAction(action)
+
+    fun psiFiles(extension: String): List<PsiFile> {
+        val psiManager = PsiManager.getInstance(fixture.project)
+        return files.filter { it.virtualFile.extension == extension }.mapNotNull { psiManager.findFile(it.virtualFile) }
+    }
+
+    fun tearDown() {
+        runInEdtAndWait { fixture.tearDown() }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin.benchmark
+
+import com.netflix.dgs.plugin.SyntheticDgsProject
+import com.netflix.dgs.plugin.services.DgsComponentIndex
+import com.netflix.dgs.plugin.services.DgsComponentProcessor
+import com.netflix.dgs.plugin.services.DgsService
+import org.openjdk.jmh.annotations.*
+
+/**
+ * Measures how the DGS components of a synthetic project are collected: processing the files with
+ * [DgsComponentProcessor], and building the snapshot that [DgsService] publishes from scratch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+open class DgsComponentIndexBenchmark {
+    @JvmField
+    @Param("JAVA", "KOTLIN")
+    var language: String = "JAVA"
+
+    @JvmField
+    @Param("1000", "10000")
+    var fetchers: Int = 0
+
+    private lateinit var benchmarkFixture: DgsBenchmarkFixture
+    private lateinit var dgsService: DgsService
+
+    @Setup(Level.Trial)
+    fun setUp() {
+        val project = SyntheticDgsProject(fetchers, schemaFiles = 10, extensions = 0, SyntheticDgsProject.Language.valueOf(language))
+        benchmarkFixture = DgsBenchmarkFixture(project)
+        dgsService = benchmarkFixture.fixture.project.getService(DgsService::class.java)
+    }
+
+    @TearDown(Level.Trial)
+    fun tearDown() {
+        benchmarkFixture.tearDown()
+    }
+
+    @Benchmark
+    fun processFiles(): DgsComponentIndex = benchmarkFixture.read {
+        val builder = DgsComponentIndex.Builder()
+        val processor = DgsComponentProcessor(builder)
+        benchmarkFixture.psiFiles(benchmarkFixture.project.language.extension).forEach { processor.processFile(it, setOf("DgsData")) }
+        builder.build()
+    }
+
+    @Benchmark
+    fun buildSnapshot(): DgsComponentIndex = benchmarkFixture.read {
+        dgsService.clearCache()
+        dgsService.dgsComponentIndex
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin.benchmark
+
+import com.intellij.lang.jsgraphql.psi.GraphQLInputValueDefinition
+import com.intellij.lang.jsgraphql.psi.GraphQLType
+import com.intellij.psi.PsiElement
+import com.intellij.psi.util.PsiTreeUtil
+import com.netflix.dgs.plugin.InputArgumentUtils
+import com.netflix.dgs.plugin.SyntheticDgsProject
+import com.netflix.dgs.plugin.services.internal.GraphQLSchemaRegistry
+import org.openjdk.jmh.annotations.*
+import org.openjdk.jmh.infra.Blackhole
+import java.util.Optional
+
+/**
+ * Measures schema lookups on a synthetic project: [GraphQLSchemaRegistry.psiForSchemaType] for every field that a
+ * data fetcher implements, and [InputArgumentUtils.getType] for every argument declared in the schema.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+open class GraphQLSchemaBenchmark {
+    @JvmField
+    @Param("10", "100")
+    var schemaFiles: Int = 0
+
+    @JvmField
+    @Param("0", "1000")
+    var extensions: Int = 0
+
+    private lateinit var benchmarkFixture: DgsBenchmarkFixture
+    private lateinit var registry: GraphQLSchemaRegistry
+    private lateinit var context: PsiElement
+    private lateinit var coordinates: List<Pair<String, String>>
+    private lateinit var argumentTypes: List<GraphQLType>
+
+    @Setup(Level.Trial)
+    fun setUp() {
+        val project = SyntheticDgsProject(fetchers = 1000, schemaFiles, extensions, SyntheticDgsProject.Language.JAVA)
+        benchmarkFixture = DgsBenchmarkFixture(project)
+        registry = benchmarkFixture.fixture.project.getService(GraphQLSchemaRegistry::class.java)
+        coordinates = project.coordinates()
+        benchmarkFixture.read {
+            context = benchmarkFixture.psiFiles("java").first()
+            argumentTypes = benchmarkFixture.psiFiles("graphqls").flatMap { file ->
+                PsiTreeUtil.findChildrenOfType(file, GraphQLInputValueDefinition::class.java).mapNotNull { it.type }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    fun tearDown() {
+        benchmarkFixture.tearDown()
+    }
+
+    @Benchmark
+    fun schemaLookups(blackhole: Blackhole) = benchmarkFixture.read {
+        coordinates.forEach { (parentType, field) ->
+            val psi: Optional<PsiElement> = registry.psiForSchemaType(context, parentType, field)
+            blackhole.consume(psi)
+        }
+    }
+
+    @Benchmark
+    fun inputArgumentTypes(blackhole: Blackhole) = benchmarkFixture.read {
+        argumentTypes.forEach {
+            blackhole.consume(InputArgumentUtils.getType(it, true, context))
+            blackhole.consume(InputArgumentUtils.getType(it, false, context))
+        }
+    }
+}
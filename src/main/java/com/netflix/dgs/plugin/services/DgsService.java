@@ -17,11 +17,67 @@
 package com.netflix.dgs.plugin.services;
 
 
+import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.netflix.dgs.plugin.DgsComponentType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface DgsService {
     DgsComponentIndex getDgsComponentIndex();
+
+    /**
+     * Returns the component index of each DGS module, without the components of its dependencies.
+     */
+    Map<Module, DgsComponentIndex> getModuleComponentIndexes();
+
+    /**
+     * Returns the components that can implement the schema of a module: those of the module itself and of every module
+     * that depends on it. Schema files outside any module get the project index.
+     */
+    DgsComponentIndex getSchemaComponentIndex(@Nullable Module module);
+
+    /**
+     * Finds the annotations declaring components of a type under their index key, e.g. {@code Query.shows} for a data
+     * fetcher, that can implement the schema of a module as in {@link #getSchemaComponentIndex(Module)}. Until the
+     * first index is published, e.g. right after the project was opened, the persistent
+     * {@link DgsComponentFileIndex} answers instead.
+     */
+    List<PsiElement> findComponentAnnotations(@Nullable Module schemaModule, DgsComponentType type, String key);
+
+    CompletableFuture<DgsComponentIndex> refreshDgsComponentIndex();
+
+    /**
+     * Changes whenever a new component index is published, for caches that depend on the index.
+     */
+    ModificationTracker getIndexModificationTracker();
+
     boolean isDgsProject(Project project);
 
+    boolean isDgsModule(@Nullable Module module);
+
+    /**
+     * Whether the element belongs to a module that uses DGS. Elements outside any module fall back to
+     * {@link #isDgsProject(Project)}.
+     */
+    boolean isDgsElement(@NotNull PsiElement element);
+
+    /**
+     * Whether a schema file is served by DGS: its module, or any module depending on it, uses DGS. This covers
+     * schema-only modules that are consumed by a DGS service. Cached per file until the project roots change.
+     */
+    boolean isDgsSchemaFile(@NotNull PsiFile file);
+
+    /**
+     * Drops all module indexes, so that the next request rebuilds them from scratch. Edits don't need this, changed
+     * files are picked up by the service itself.
+     */
     void clearCache();
 }
@@ -16,31 +16,75 @@
 
 package com.netflix.dgs.plugin.services.internal;
 
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.ide.highlighter.JavaFileType;
 import com.intellij.ide.projectView.ProjectView;
-import com.intellij.lang.java.JavaLanguage;
 import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.externalSystem.service.project.manage.ProjectDataImportListener;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
 import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.ModuleListener;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
 import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootModificationTracker;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.psi.FileViewProvider;
 import com.intellij.psi.PsiAnnotation;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
 import com.intellij.psi.PsiReferenceList;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
 import com.intellij.psi.impl.java.stubs.index.JavaStubIndexKeys;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.stubs.StubIndex;
 import com.intellij.psi.stubs.StubIndexKey;
-import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.messages.MessageBusConnection;
+import com.netflix.dgs.plugin.DgsComponentType;
+import com.netflix.dgs.plugin.NamedNavigationComponent;
+import com.netflix.dgs.plugin.provider.DgsProjectStructureProvider;
+import com.netflix.dgs.plugin.services.DgsComponentFileIndex;
 import com.netflix.dgs.plugin.services.DgsComponentIndex;
 import com.netflix.dgs.plugin.services.DgsComponentProcessor;
+import com.netflix.dgs.plugin.services.DgsMetrics;
 import com.netflix.dgs.plugin.services.DgsService;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.jetbrains.kotlin.idea.KotlinLanguage;
+import org.jetbrains.annotations.TestOnly;
+import org.jetbrains.kotlin.idea.KotlinFileType;
 import org.jetbrains.kotlin.idea.stubindex.KotlinAnnotationsIndex;
 import org.jetbrains.kotlin.idea.stubindex.KotlinSuperClassIndex;
 import org.jetbrains.kotlin.psi.KtAnnotationEntry;
@@ -49,11 +93,37 @@ import org.jetbrains.uast.UAnnotation;
 import org.jetbrains.uast.UastContextKt;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 public class DgsServiceImpl implements DgsService, Disposable {
+    private static final int MAX_INCREMENTAL_FILES = 100;
+    private static final long REBUILD_DELAY_MS = 300;
+    private static final long MAX_REBUILD_DELAY_MS = 2000;
+
+    /**
+     * Registry key that builds the indexes of several modules concurrently, one worker per module. On by default, it
+     * can be turned off to build one module after the other.
+     */
+    public static final String PARALLEL_BUILD_REGISTRY_KEY = "dgs.index.parallel.build";
+
     private final Project project;
     private final Set<String> annotations = Set.of(
             "DgsQuery",
@@ -65,7 +135,20 @@ public class DgsServiceImpl implements DgsService, Disposable {
             "DgsDirective",
             "DgsRuntimeWiring",
             "DgsScalar");
-    private volatile DgsComponentIndex cachedComponentIndex;
+    // One index per DGS module and the project view merged from them, replaced as a whole on publish.
+    private volatile Snapshot snapshot;
+    private final SimpleModificationTracker indexModificationTracker = new SimpleModificationTracker();
+
+    // Changes are stamped so that a rebuild only clears the changes it has actually seen.
+    private final AtomicLong modificationStamp = new AtomicLong(1);
+    private final Map<VirtualFile, Long> dirtyFiles = new ConcurrentHashMap<>();
+    private final Map<Module, Long> dirtyModules = new ConcurrentHashMap<>();
+    private final AtomicLong requestedFullRebuild = new AtomicLong(1);
+    private volatile long publishedFullRebuild;
+    private volatile long lastChangeNanos;
+    private final AtomicReference<CompletableFuture<DgsComponentIndex>> refreshInFlight = new AtomicReference<>();
+    // Unit tests compute the index on the calling thread unless they opt into the scheduled refresh
+    private volatile boolean inlineRefresh = ApplicationManager.getApplication().isUnitTestMode();
 
     public DgsServiceImpl(Project project) {
         this.project = project;
@@ -74,119 +157,664 @@ public class DgsServiceImpl implements DgsService, Disposable {
                 new ProjectDataImportListener() {
                     @Override
                     public void onImportFinished(@Nullable String projectPath) {
-                        dependencyFound.set(false);
-                        dependenciesProcessed.set(false);
-
+                        dgsModules = new DgsModules();
                     }
                 });
+
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new DgsPsiTreeChangeListener(), this);
+
+        MessageBusConnection connection = project.getMessageBus().connect(this);
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void before(@NotNull List<? extends @NotNull VFileEvent> events) {
+                // deleted files and the old location of moved files can only be looked up before the event is applied
+                for (VFileEvent event : events) {
+                    if (event instanceof VFileDeleteEvent || event instanceof VFileMoveEvent) {
+                        onFileChange(event.getFile());
+                    }
+                }
+            }
+
+            @Override
+            public void after(@NotNull List<? extends @NotNull VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    if (event instanceof VFileContentChangeEvent || event instanceof VFileCreateEvent || event instanceof VFileMoveEvent) {
+                        onFileChange(event.getFile());
+                    }
+                }
+            }
+        });
+        connection.subscribe(ModuleRootListener.TOPIC, new ModuleRootListener() {
+            @Override
+            public void rootsChanged(@NotNull ModuleRootEvent event) {
+                dgsModules = new DgsModules();
+                requestFullRebuild();
+            }
+        });
+        connection.subscribe(ModuleListener.TOPIC, new ModuleListener() {
+            @Override
+            public void modulesAdded(@NotNull Project project, @NotNull List<? extends Module> modules) {
+                dgsModules = new DgsModules();
+            }
+
+            @Override
+            public void moduleRemoved(@NotNull Project project, @NotNull Module module) {
+                dgsModules = new DgsModules();
+            }
+        });
     }
 
-    private volatile long javaModificationCount;
-    private volatile long kotlinModificationCount;
-    private final AtomicBoolean dependencyFound = new AtomicBoolean(false);
-    private final AtomicBoolean dependenciesProcessed = new AtomicBoolean(false);
+    // Replaced as a whole whenever module roots change, so readers never see a partially reset state.
+    private volatile DgsModules dgsModules = new DgsModules();
 
+    /**
+     * Returns the last published snapshot right away. If it is outdated, a rebuild is started in the background and
+     * highlighting is restarted once the new snapshot is published. In unit test mode callers wait for the rebuild.
+     */
     @Override
     public DgsComponentIndex getDgsComponentIndex() {
+        DgsMetrics metrics = DgsMetrics.getInstance(project);
+        metrics.increment("index.requests");
+        DgsComponentIndex index = currentProjectIndex();
+        if (index != null && isUpToDate()) {
+            metrics.increment("index.requests.cached");
+            return index;
+        }
 
         if (DumbService.isDumb(project)) {
-            return new DgsComponentIndex();
+            return index != null ? index : DgsComponentIndex.EMPTY;
+        }
+
+        CompletableFuture<DgsComponentIndex> refresh = refreshDgsComponentIndex();
+        if (inlineRefresh) {
+            return ProgressIndicatorUtils.awaitWithCheckCanceled(refresh);
+        }
+
+        return index != null ? index : DgsComponentIndex.EMPTY;
+    }
+
+    /**
+     * Starts a rebuild unless one is already running, in which case all callers share the running one. Background
+     * rebuilds are debounced so that a burst of edits results in a single rebuild.
+     */
+    @Override
+    public CompletableFuture<DgsComponentIndex> refreshDgsComponentIndex() {
+        DgsComponentIndex index = currentProjectIndex();
+        if (index != null && isUpToDate()) {
+            return CompletableFuture.completedFuture(index);
         }
 
-        ModificationTracker javaModificationTracker = PsiModificationTracker.getInstance(project).forLanguage(JavaLanguage.INSTANCE);
-        ModificationTracker kotlinModificationTracker = PsiModificationTracker.getInstance(project).forLanguage(KotlinLanguage.INSTANCE);
+        CompletableFuture<DgsComponentIndex> refresh = new CompletableFuture<>();
+        CompletableFuture<DgsComponentIndex> running = refreshInFlight.compareAndExchange(null, refresh);
+        if (running != null) {
+            return running;
+        }
 
-        if (cachedComponentIndex != null && javaModificationCount == javaModificationTracker.getModificationCount() && kotlinModificationCount == kotlinModificationTracker.getModificationCount()) {
-            return cachedComponentIndex;
+        if (inlineRefresh) {
+            try {
+                ComputedIndex computed = ReadAction.compute(this::computeComponentIndex);
+                finishRefresh(refresh, publish(computed), null);
+            } catch (Throwable e) {
+                finishRefresh(refresh, null, e);
+                throw e;
+            }
         } else {
-            javaModificationCount = javaModificationTracker.getModificationCount();
-            kotlinModificationCount = kotlinModificationTracker.getModificationCount();
+            scheduleRefresh(refresh, System.nanoTime());
+        }
 
-            StubIndex stubIndex = StubIndex.getInstance();
+        return refresh;
+    }
 
-            DgsComponentIndex dgsComponentIndex = new DgsComponentIndex();
-            GraphQLSchemaRegistry graphQLSchemaRegistry = project.getService(GraphQLSchemaRegistry.class);
-            var processor = new DgsComponentProcessor(graphQLSchemaRegistry, dgsComponentIndex);
+    /**
+     * Makes a test use the debounced background refresh that runs outside of unit test mode, until the disposable is
+     * disposed.
+     */
+    @TestOnly
+    public void useScheduledRefresh(@NotNull Disposable parentDisposable) {
+        inlineRefresh = false;
+        Disposer.register(parentDisposable, () -> inlineRefresh = true);
+    }
 
-            annotations.forEach(dataFetcherAnnotation -> {
-                stubIndex.processElements(JavaStubIndexKeys.ANNOTATIONS, dataFetcherAnnotation, project, GlobalSearchScope.projectScope(project), PsiAnnotation.class, annotation -> {
-                    UAnnotation uElement = (UAnnotation) UastContextKt.toUElement(annotation);
-                    if (uElement != null) {
-                        processor.process(uElement);
-                    }
-                    return true;
-                });
-            });
+    @Override
+    public ModificationTracker getIndexModificationTracker() {
+        return indexModificationTracker;
+    }
 
-            stubIndex.processElements(JavaStubIndexKeys.SUPER_CLASSES, "DgsCustomContextBuilder", project, GlobalSearchScope.projectScope(project), PsiReferenceList.class, refList -> {
-                PsiClass clazz = PsiTreeUtil.getParentOfType(refList, PsiClass.class);
-                dgsComponentIndex.addDgsCustomContext(clazz);
-                return true;
-            });
+    @Override
+    public Map<Module, DgsComponentIndex> getModuleComponentIndexes() {
+        getDgsComponentIndex();
+        Snapshot current = snapshot;
+        return current != null ? current.moduleIndexes() : Map.of();
+    }
 
-            StubIndexKey<String, KtAnnotationEntry> key = KotlinAnnotationsIndex.Helper.getIndexKey();
-            List<String> list = new ArrayList<>();
-            stubIndex.processAllKeys(key, project, e -> {
-                ProgressManager.checkCanceled();
-                return list.add(e);
-            });
-            for (String annotation : list) {
-                if (annotations.contains(annotation)) {
-                    StubIndex.getElements(key, annotation, project, GlobalSearchScope.projectScope(project), KtAnnotationEntry.class).forEach(dataFetcherAnnotation -> {
-                        UAnnotation uElement = (UAnnotation) UastContextKt.toUElement(dataFetcherAnnotation);
-                        if (uElement != null) {
-                            processor.process(uElement);
+    @Override
+    public DgsComponentIndex getSchemaComponentIndex(@Nullable Module module) {
+        DgsComponentIndex index = getDgsComponentIndex();
+        Snapshot current = snapshot;
+        if (module == null || current == null) {
+            return index;
+        }
+
+        // a module created since the last build gets the project index until the rebuild for the new roots
+        SchemaView view = current.schemaViews().get(module);
+        return view != null ? view.index() : index;
+    }
+
+    @Override
+    public List<PsiElement> findComponentAnnotations(@Nullable Module schemaModule, DgsComponentType type, String key) {
+        DgsComponentIndex index = getSchemaComponentIndex(schemaModule);
+        if (snapshot != null) {
+            return index.findComponentsByName(key).stream()
+                    .filter(component -> component.getType() == type)
+                    .map(NamedNavigationComponent::getPsiAnnotation)
+                    .filter(Objects::nonNull)
+                    .toList();
+        }
+
+        // no index was published yet, e.g. right after the project was opened, the persistent index answers meanwhile
+        if (DumbService.isDumb(project)) {
+            return List.of();
+        }
+        return DgsComponentFileIndex.findAnnotations(project, type, key, schemaScope(schemaModule));
+    }
+
+    private GlobalSearchScope schemaScope(@Nullable Module module) {
+        if (module == null) {
+            return GlobalSearchScope.projectScope(project);
+        }
+
+        GlobalSearchScope scope = GlobalSearchScope.moduleScope(module);
+        for (Module dependent : ModuleUtilCore.getAllDependentModules(module)) {
+            scope = scope.uniteWith(GlobalSearchScope.moduleScope(dependent));
+        }
+        return scope;
+    }
+
+    private @Nullable DgsComponentIndex currentProjectIndex() {
+        Snapshot current = snapshot;
+        return current != null ? current.projectIndex() : null;
+    }
+
+    private boolean isUpToDate() {
+        return dirtyFiles.isEmpty() && dirtyModules.isEmpty() && publishedFullRebuild == requestedFullRebuild.get();
+    }
+
+    private void scheduleRefresh(CompletableFuture<DgsComponentIndex> refresh, long firstScheduledNanos) {
+        AppExecutorUtil.getAppScheduledExecutorService().schedule(() -> {
+            long now = System.nanoTime();
+            boolean editing = now - lastChangeNanos < TimeUnit.MILLISECONDS.toNanos(REBUILD_DELAY_MS);
+            if (editing && now - firstScheduledNanos < TimeUnit.MILLISECONDS.toNanos(MAX_REBUILD_DELAY_MS)) {
+                scheduleRefresh(refresh, firstScheduledNanos);
+                return;
+            }
+
+            ReadAction.nonBlocking(this::computeComponentIndex)
+                    .inSmartMode(project)
+                    .expireWith(this)
+                    .finishOnUiThread(ModalityState.nonModal(), computed -> {
+                        finishRefresh(refresh, publish(computed), null);
+                        DaemonCodeAnalyzer.getInstance(project).restart();
+                    })
+                    .submit(AppExecutorUtil.getAppExecutorService())
+                    .onProcessed(computed -> {
+                        if (!refresh.isDone()) {
+                            finishRefresh(refresh, null, new CancellationException());
                         }
                     });
+        }, REBUILD_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void finishRefresh(CompletableFuture<DgsComponentIndex> refresh, @Nullable DgsComponentIndex index, @Nullable Throwable error) {
+        refreshInFlight.compareAndSet(refresh, null);
+        if (error != null) {
+            refresh.completeExceptionally(error);
+        } else {
+            refresh.complete(index);
+        }
+    }
+
+    private ComputedIndex computeComponentIndex() {
+        DgsMetrics metrics = DgsMetrics.getInstance(project);
+        long start = metrics.startTimer();
+        long fullRebuild = requestedFullRebuild.get();
+        Map<VirtualFile, Long> changedFiles = new HashMap<>(dirtyFiles);
+        Map<Module, Long> changedModules = new HashMap<>(dirtyModules);
+        Snapshot current = snapshot;
+        Map<Module, DgsComponentIndex> previous = current != null ? current.moduleIndexes() : null;
+
+        Map<Module, DgsComponentIndex> indexes = new LinkedHashMap<>();
+        if (previous == null || fullRebuild != publishedFullRebuild) {
+            metrics.increment("index.fullRebuilds");
+            List<Module> modules = Arrays.stream(ModuleManager.getInstance(project).getModules()).filter(this::isDgsModule).toList();
+            indexes.putAll(buildComponentIndexes(modules));
+        } else {
+            indexes.putAll(previous);
+            List<Module> rebuiltModules = new ArrayList<>();
+            for (Module module : changedModules.keySet()) {
+                if (module.isDisposed() || !isDgsModule(module)) {
+                    indexes.remove(module);
+                } else {
+                    rebuiltModules.add(module);
+                }
+            }
+            changedFilesByModule(previous, changedFiles.keySet()).forEach((module, files) -> {
+                if (changedModules.containsKey(module)) {
+                    return;
+                }
+                if (!isDgsModule(module)) {
+                    indexes.remove(module);
+                } else if (files.size() > MAX_INCREMENTAL_FILES) {
+                    rebuiltModules.add(module);
+                } else {
+                    metrics.increment("index.modulePatches");
+                    DgsComponentIndex moduleIndex = previous.getOrDefault(module, DgsComponentIndex.EMPTY);
+                    indexes.put(module, patchComponentIndex(moduleIndex, files, GlobalSearchScope.moduleScope(module)));
                 }
+            });
+            rebuiltModules.forEach(module -> metrics.increment("index.moduleRebuilds"));
+            indexes.putAll(buildComponentIndexes(rebuiltModules));
+        }
+
+        // the project view and the changed types are computed here, so that publishing on the EDT is only a swap
+        DgsComponentIndex previousIndex = current != null ? current.projectIndex() : null;
+        List<DgsComponentIndex> sources = List.copyOf(indexes.values());
+        DgsComponentIndex projectIndex = current != null && current.sources().equals(sources)
+                ? previousIndex
+                : DgsComponentIndex.merge(sources);
+        Set<DgsComponentType> changedTypes = previousIndex != null ? projectIndex.changedTypes(previousIndex) : null;
+        Map<Module, SchemaView> schemaViews = computeSchemaViews(indexes, sources, projectIndex, current);
+
+        metrics.stopTimer("index.compute", start);
+        return new ComputedIndex(Collections.unmodifiableMap(indexes), sources, projectIndex, schemaViews, changedTypes,
+                fullRebuild, changedFiles, changedModules);
+    }
+
+    /**
+     * Computes the view of every module's schema: the components of the module and of the modules depending on it.
+     * A view is only merged again when one of its module indexes changed.
+     */
+    private Map<Module, SchemaView> computeSchemaViews(
+            Map<Module, DgsComponentIndex> indexes,
+            List<DgsComponentIndex> projectSources,
+            DgsComponentIndex projectIndex,
+            @Nullable Snapshot previous) {
+        Map<Module, SchemaView> views = new HashMap<>();
+        for (Module module : ModuleManager.getInstance(project).getModules()) {
+            ProgressManager.checkCanceled();
+            List<DgsComponentIndex> sources = new ArrayList<>();
+            Optional.ofNullable(indexes.get(module)).ifPresent(sources::add);
+            for (Module dependent : ModuleUtilCore.getAllDependentModules(module)) {
+                Optional.ofNullable(indexes.get(dependent)).ifPresent(sources::add);
             }
 
-            StubIndexKey<String, KtClassOrObject> superClassIndexKey = KotlinSuperClassIndex.Helper.getIndexKey();
-            stubIndex.processElements(superClassIndexKey, "DgsCustomContextBuilder", project, GlobalSearchScope.projectScope(project), KtClassOrObject.class, clazz -> {
-                dgsComponentIndex.addDgsCustomContext(clazz);
-                return true;
+            SchemaView previousView = previous != null ? previous.schemaViews().get(module) : null;
+            if (previousView != null && previousView.sources().equals(sources)) {
+                views.put(module, previousView);
+            } else if (sources.equals(projectSources)) {
+                views.put(module, new SchemaView(sources, projectIndex));
+            } else {
+                views.put(module, new SchemaView(sources, sources.size() == 1 ? sources.get(0) : DgsComponentIndex.merge(sources)));
+            }
+        }
+        return views;
+    }
+
+    /**
+     * Groups changed files by the modules whose index has to be patched: the module a file belongs to now, and any
+     * module that still has components from it, e.g. after the file was deleted or moved to another module.
+     */
+    private Map<Module, Set<VirtualFile>> changedFilesByModule(Map<Module, DgsComponentIndex> previous, Set<VirtualFile> changedFiles) {
+        Map<Module, Set<VirtualFile>> result = new HashMap<>();
+        for (VirtualFile file : changedFiles) {
+            Module module = file.isValid() ? ModuleUtilCore.findModuleForFile(file, project) : null;
+            if (module != null) {
+                result.computeIfAbsent(module, m -> new HashSet<>()).add(file);
+            }
+
+            previous.forEach((indexedModule, index) -> {
+                if (indexedModule != module && index.containsFile(file)) {
+                    result.computeIfAbsent(indexedModule, m -> new HashSet<>()).add(file);
+                }
             });
+        }
+        return result;
+    }
 
-            cachedComponentIndex = dgsComponentIndex;
+    /**
+     * Publishes a computed index and returns the new project view. Everything is computed in the read action already,
+     * so this only swaps the snapshot and notifies the listeners.
+     */
+    private DgsComponentIndex publish(ComputedIndex computed) {
+        DgsComponentIndex index = computed.projectIndex();
+        snapshot = new Snapshot(computed.indexes(), computed.sources(), index, computed.schemaViews());
+        publishedFullRebuild = computed.fullRebuild();
+        // files changed again while the index was computed keep a newer stamp and stay dirty
+        computed.changedFiles().forEach(dirtyFiles::remove);
+        computed.changedModules().forEach(dirtyModules::remove);
+
+        indexModificationTracker.incModificationCount();
+        DgsMetrics metrics = DgsMetrics.getInstance(project);
+        if (metrics.isEnabled()) {
+            metrics.record("index.components", index.getSize());
+        }
+        Set<DgsComponentType> changedTypes = computed.changedTypes();
+        if (changedTypes == null) {
             ProjectView.getInstance(project).refresh();
+        } else if (!changedTypes.isEmpty()) {
+            DgsProjectStructureProvider.updateNodes(project, changedTypes);
+        }
+        return index;
+    }
+
+    private void requestFullRebuild() {
+        lastChangeNanos = System.nanoTime();
+        requestedFullRebuild.set(modificationStamp.incrementAndGet());
+    }
 
-            return dgsComponentIndex;
+    /**
+     * Builds the indexes of whole modules. Modules are independent of each other, so with the parallel build each one
+     * is built by its own worker. The result is the same as a sequential build.
+     */
+    private Map<Module, DgsComponentIndex> buildComponentIndexes(List<Module> modules) {
+        DgsComponentIndex[] moduleIndexes = new DgsComponentIndex[modules.size()];
+        if (modules.size() < 2 || !Registry.is(PARALLEL_BUILD_REGISTRY_KEY, true)) {
+            for (int i = 0; i < modules.size(); i++) {
+                moduleIndexes[i] = buildComponentIndex(GlobalSearchScope.moduleScope(modules.get(i)));
+            }
+        } else {
+            // workers run in the read action of the calling thread, and are canceled with it
+            boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(
+                    IntStream.range(0, modules.size()).boxed().toList(),
+                    ProgressManager.getInstance().getProgressIndicator(),
+                    i -> {
+                        moduleIndexes[i] = buildComponentIndex(GlobalSearchScope.moduleScope(modules.get(i)));
+                        return true;
+                    });
+            if (!completed) {
+                throw new ProcessCanceledException();
+            }
+        }
+
+        Map<Module, DgsComponentIndex> result = new LinkedHashMap<>();
+        for (int i = 0; i < modules.size(); i++) {
+            result.put(modules.get(i), moduleIndexes[i]);
         }
+        return result;
     }
 
-    @Override
-    public boolean isDgsProject(Project project) {
-        if (!dependenciesProcessed.get()) {
-            for (Module m : ModuleManager.getInstance(project).getModules()) {
-                var libraries = ModuleRootManager.getInstance(m).orderEntries().librariesOnly().compileOnly();
-                libraries.forEachLibrary(l -> {
-                    dependenciesProcessed.getAndSet(true);
-                    String name = l.getName();
-                    if (name != null && name.contains("com.netflix.graphql.dgs")) {
-                        dependencyFound.set(true);
-                        return false;
-                    }
-                    return true;
-                });
+    private DgsComponentIndex buildComponentIndex(GlobalSearchScope scope) {
+        DgsComponentIndex.Builder indexBuilder = new DgsComponentIndex.Builder();
+        buildTasks(scope).forEach(task -> task.accept(indexBuilder));
+        return indexBuilder.build();
+    }
+
+    /**
+     * Splits a module build into stub index lookups, one per annotation name and language.
+     */
+    private List<Consumer<DgsComponentIndex.Builder>> buildTasks(GlobalSearchScope scope) {
+        StubIndex stubIndex = StubIndex.getInstance();
+        List<Consumer<DgsComponentIndex.Builder>> tasks = new ArrayList<>();
+
+        annotations.forEach(dataFetcherAnnotation -> tasks.add(indexBuilder -> {
+            var processor = new DgsComponentProcessor(indexBuilder);
+            stubIndex.processElements(JavaStubIndexKeys.ANNOTATIONS, dataFetcherAnnotation, project, scope, PsiAnnotation.class, annotation -> {
+                UAnnotation uElement = (UAnnotation) UastContextKt.toUElement(annotation);
+                if (uElement != null) {
+                    processor.process(uElement);
+                }
+                return true;
+            });
+        }));
+
+        tasks.add(indexBuilder -> stubIndex.processElements(JavaStubIndexKeys.SUPER_CLASSES, "DgsCustomContextBuilder", project, scope, PsiReferenceList.class, refList -> {
+            PsiClass clazz = PsiTreeUtil.getParentOfType(refList, PsiClass.class);
+            indexBuilder.addDgsCustomContext(clazz);
+            return true;
+        }));
+
+        StubIndexKey<String, KtAnnotationEntry> key = KotlinAnnotationsIndex.Helper.getIndexKey();
+        annotations.forEach(dataFetcherAnnotation -> tasks.add(indexBuilder -> {
+            var processor = new DgsComponentProcessor(indexBuilder);
+            stubIndex.processElements(key, dataFetcherAnnotation, project, scope, KtAnnotationEntry.class, annotation -> {
+                UAnnotation uElement = (UAnnotation) UastContextKt.toUElement(annotation);
+                if (uElement != null) {
+                    processor.process(uElement);
+                }
+                return true;
+            });
+        }));
+
+        StubIndexKey<String, KtClassOrObject> superClassIndexKey = KotlinSuperClassIndex.Helper.getIndexKey();
+        tasks.add(indexBuilder -> stubIndex.processElements(superClassIndexKey, "DgsCustomContextBuilder", project, scope, KtClassOrObject.class, clazz -> {
+            indexBuilder.addDgsCustomContext(clazz);
+            return true;
+        }));
+
+        return tasks;
+    }
 
-                if(dependencyFound.get()) {
-                    return true;
+    private DgsComponentIndex patchComponentIndex(DgsComponentIndex previous, Set<VirtualFile> changedFiles, GlobalSearchScope scope) {
+        DgsComponentIndex.Builder indexBuilder = new DgsComponentIndex.Builder(previous, changedFiles);
+
+        var processor = new DgsComponentProcessor(indexBuilder);
+        PsiManager psiManager = PsiManager.getInstance(project);
+
+        for (VirtualFile file : changedFiles) {
+            ProgressManager.checkCanceled();
+            if (file.isValid() && scope.contains(file)) {
+                PsiFile psiFile = psiManager.findFile(file);
+                if (psiFile != null) {
+                    processor.processFile(psiFile, annotations);
                 }
             }
+        }
+
+        return indexBuilder.build();
+    }
+
+    private void onFileChange(@Nullable VirtualFile file) {
+        if (file == null || !file.isValid()) {
+            return;
+        }
+
+        if (file.isDirectory()) {
+            // files created or deleted with a directory get no events of their own
+            if (ProjectFileIndex.getInstance(project).isInContent(file)) {
+                markDirty(ModuleUtilCore.findModuleForFile(file, project));
+            }
+        } else {
+            markDirty(file, () -> LoadTextUtil.loadText(file));
+        }
+    }
 
-            return false;
+    /**
+     * Marks a Java or Kotlin file in the project content for patching, if it has components now or had them in the
+     * current index. The contents are only loaded for files the index doesn't know.
+     */
+    private void markDirty(@NotNull VirtualFile file, Supplier<CharSequence> contents) {
+        Snapshot current = snapshot;
+        // without an index the next build is a full one anyway
+        if (current == null) {
+            return;
         }
 
-        return dependencyFound.get();
+        FileType fileType = file.getFileType();
+        if (fileType != JavaFileType.INSTANCE && fileType != KotlinFileType.INSTANCE
+                || !ProjectFileIndex.getInstance(project).isInContent(file)) {
+            return;
+        }
+
+        boolean indexed = current.moduleIndexes().values().stream().anyMatch(index -> index.containsFile(file));
+        if (indexed || file.isValid() && StringUtil.contains(contents.get(), "Dgs")) {
+            lastChangeNanos = System.nanoTime();
+            dirtyFiles.put(file, modificationStamp.incrementAndGet());
+        }
+    }
+
+    /**
+     * Marks a whole module for a rebuild, e.g. after a directory with sources was created or deleted.
+     */
+    private void markDirty(@Nullable Module module) {
+        if (module == null || snapshot == null) {
+            return;
+        }
+
+        lastChangeNanos = System.nanoTime();
+        dirtyModules.put(module, modificationStamp.incrementAndGet());
+    }
+
+    @Override
+    public boolean isDgsProject(Project project) {
+        return dgsModules.isDgsProject();
+    }
+
+    @Override
+    public boolean isDgsModule(@Nullable Module module) {
+        return module != null && dgsModules.isDgsModule(module);
+    }
+
+    @Override
+    public boolean isDgsElement(@NotNull PsiElement element) {
+        Module module = ModuleUtilCore.findModuleForPsiElement(element);
+        return module != null ? isDgsModule(module) : isDgsProject(project);
+    }
+
+    @Override
+    public boolean isDgsSchemaFile(@NotNull PsiFile file) {
+        return CachedValuesManager.getCachedValue(file, () -> CachedValueProvider.Result.create(
+                isServedByDgsModule(ModuleUtilCore.findModuleForFile(file)),
+                ProjectRootModificationTracker.getInstance(project)));
+    }
+
+    private boolean isServedByDgsModule(@Nullable Module module) {
+        if (module == null) {
+            return isDgsProject(project);
+        }
+        return isDgsModule(module) || ModuleUtilCore.getAllDependentModules(module).stream().anyMatch(this::isDgsModule);
     }
 
     @Override
     public void clearCache() {
-        cachedComponentIndex = null;
+        requestFullRebuild();
     }
 
     @Override
     public void dispose() {
 
     }
+
+    /**
+     * A computed index that is ready to be published. The changed types are null when there was no index to compare
+     * with.
+     */
+    private record ComputedIndex(
+            Map<Module, DgsComponentIndex> indexes,
+            List<DgsComponentIndex> sources,
+            DgsComponentIndex projectIndex,
+            Map<Module, SchemaView> schemaViews,
+            @Nullable Set<DgsComponentType> changedTypes,
+            long fullRebuild,
+            Map<VirtualFile, Long> changedFiles,
+            Map<Module, Long> changedModules) {
+    }
+
+    private record Snapshot(
+            Map<Module, DgsComponentIndex> moduleIndexes,
+            List<DgsComponentIndex> sources,
+            DgsComponentIndex projectIndex,
+            Map<Module, SchemaView> schemaViews) {
+    }
+
+    /**
+     * The components that can serve a module's schema, with the module indexes they were merged from.
+     */
+    private record SchemaView(List<DgsComponentIndex> sources, DgsComponentIndex index) {
+    }
+
+    /**
+     * Whether each module has the DGS framework on its compile classpath, computed at most once per module until the
+     * module roots change.
+     */
+    private final class DgsModules {
+        private final Map<Module, Boolean> modules = new ConcurrentHashMap<>();
+        private volatile Boolean anyModule;
+
+        boolean isDgsModule(Module module) {
+            return modules.computeIfAbsent(module, DgsModules::hasDgsLibrary);
+        }
+
+        boolean isDgsProject() {
+            Boolean result = anyModule;
+            if (result == null) {
+                result = Arrays.stream(ModuleManager.getInstance(project).getModules()).anyMatch(this::isDgsModule);
+                anyModule = result;
+            }
+            return result;
+        }
+
+        private static boolean hasDgsLibrary(Module module) {
+            if (module.isDisposed()) {
+                return false;
+            }
+
+            boolean[] found = {false};
+            ModuleRootManager.getInstance(module).orderEntries().librariesOnly().compileOnly().forEachLibrary(library -> {
+                String name = library.getName();
+                found[0] = name != null && name.contains("com.netflix.graphql.dgs");
+                return !found[0];
+            });
+            return found[0];
+        }
+    }
+
+    private class DgsPsiTreeChangeListener extends PsiTreeChangeAdapter {
+        @Override
+        public void childAdded(@NotNull PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childMoved(@NotNull PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        private void onChange(PsiTreeChangeEvent event) {
+            PsiFile file = event.getFile();
+            if (file == null && event.getChild() instanceof PsiFile child) {
+                file = child;
+            }
+            if (file == null && event.getElement() instanceof PsiFile element) {
+                file = element;
+            }
+
+            if (file != null) {
+                FileViewProvider viewProvider = file.getViewProvider();
+                markDirty(viewProvider.getVirtualFile(), viewProvider::getContents);
+            } else if (event.getChild() instanceof PsiDirectory directory) {
+                markDirty(ModuleUtilCore.findModuleForPsiElement(directory));
+            } else if (event.getElement() instanceof PsiDirectory directory) {
+                markDirty(ModuleUtilCore.findModuleForPsiElement(directory));
+            }
+        }
+    }
 }
@@ -16,27 +16,34 @@
 
 package com.netflix.dgs.plugin.services.internal;
 
+import com.intellij.lang.jsgraphql.GraphQLLanguage;
 import com.intellij.lang.jsgraphql.schema.GraphQLSchemaProvider;
 import com.intellij.lang.jsgraphql.schema.GraphQLTypeDefinitionUtil;
 import com.intellij.lang.jsgraphql.types.language.DirectiveDefinition;
 import com.intellij.lang.jsgraphql.types.language.FieldDefinition;
 import com.intellij.lang.jsgraphql.types.language.InterfaceTypeDefinition;
-import com.intellij.lang.jsgraphql.types.language.InterfaceTypeExtensionDefinition;
 import com.intellij.lang.jsgraphql.types.language.ObjectTypeDefinition;
-import com.intellij.lang.jsgraphql.types.language.ObjectTypeExtensionDefinition;
 import com.intellij.lang.jsgraphql.types.language.ScalarTypeDefinition;
 import com.intellij.lang.jsgraphql.types.schema.idl.TypeDefinitionRegistry;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.containers.CollectionFactory;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class GraphQLSchemaRegistry {
+    private static final Key<CachedValue<Map<TypeDefinitionRegistry, SchemaTable>>> SCHEMA_TABLES = Key.create("dgs.schema.tables");
 
     private final Project project;
 
@@ -46,26 +53,23 @@ public class GraphQLSchemaRegistry {
 
     public @Nullable
     Optional<PsiElement> psiForSchemaType(@NotNull PsiElement psiElement, @Nullable String parentType, @Nullable String field) {
-        TypeDefinitionRegistry registry = getRegistry(psiElement);
-        List<ObjectTypeDefinition> objectTypes = getTypeDefinitions(registry, parentType);
-        if (!objectTypes.isEmpty()) {
-            Optional<FieldDefinition> schemaField = objectTypes.stream().map(ObjectTypeDefinition::getFieldDefinitions).flatMap(Collection::stream)
-                    .filter(e -> e.getName().equals(field)).findAny();
-            if (schemaField.isPresent()) {
-                return Optional.ofNullable(GraphQLTypeDefinitionUtil.findElement(schemaField.get().getSourceLocation(), psiElement.getProject())).map(PsiElement::getParent);
+        SchemaTable table = getSchemaTable(psiElement);
+        Map<String, FieldDefinition> objectFields = table.objectFields.get(parentType);
+        if (objectFields != null) {
+            FieldDefinition schemaField = objectFields.get(field);
+            if (schemaField != null) {
+                return Optional.ofNullable(GraphQLTypeDefinitionUtil.findElement(schemaField.getSourceLocation(), psiElement.getProject())).map(PsiElement::getParent);
             }
         } else if ("_entities".equals(parentType)) {
-            Optional<ObjectTypeDefinition> entitiesType = getTypeDefinition(registry, field);
-            if (entitiesType.isPresent()) {
-                return Optional.ofNullable(GraphQLTypeDefinitionUtil.findElement(entitiesType.get().getSourceLocation(), psiElement.getProject()));
+            ObjectTypeDefinition entitiesType = table.objectTypes.get(field);
+            if (entitiesType != null) {
+                return Optional.ofNullable(GraphQLTypeDefinitionUtil.findElement(entitiesType.getSourceLocation(), psiElement.getProject()));
             }
         } else {
-            Optional<InterfaceTypeDefinition> interfaceType = getInterfaceTypeDefinition(registry, parentType);
-            if (interfaceType.isPresent()) {
-                Optional<FieldDefinition> schemaField = interfaceType.get().getFieldDefinitions().stream().filter(f -> f.getName().equals(field)).findAny();
-                if (schemaField.isPresent()) {
-                    return Optional.ofNullable(GraphQLTypeDefinitionUtil.findElement(schemaField.get().getSourceLocation(), psiElement.getProject()));
-                }
+            Map<String, FieldDefinition> interfaceFields = table.interfaceFields.get(parentType);
+            FieldDefinition schemaField = interfaceFields != null ? interfaceFields.get(field) : null;
+            if (schemaField != null) {
+                return Optional.ofNullable(GraphQLTypeDefinitionUtil.findElement(schemaField.getSourceLocation(), psiElement.getProject()));
             }
         }
 
@@ -88,46 +92,64 @@ public class GraphQLSchemaRegistry {
         }
     }
 
-    private Optional<ObjectTypeDefinition> getTypeDefinition(TypeDefinitionRegistry registry, String schemaType) {
-        Optional<ObjectTypeDefinition> objectTypeDefinition = registry.getType(schemaType, ObjectTypeDefinition.class);
-        if (objectTypeDefinition.isPresent()) {
-            return objectTypeDefinition;
-        }
+    /**
+     * Returns the lookup tables for the schema visible from the given element. Tables are kept per schema registry
+     * instance and dropped whenever a GraphQL file changes.
+     */
+    public SchemaTable getSchemaTable(@NotNull PsiElement psiElement) {
+        TypeDefinitionRegistry registry = getRegistry(psiElement);
+        Map<TypeDefinitionRegistry, SchemaTable> tables = CachedValuesManager.getManager(project).getCachedValue(project, SCHEMA_TABLES, () ->
+                CachedValueProvider.Result.create(CollectionFactory.createConcurrentWeakIdentityMap(),
+                        PsiModificationTracker.getInstance(project).forLanguage(GraphQLLanguage.INSTANCE)), false);
+        return tables.computeIfAbsent(registry, SchemaTable::new);
+    }
 
-        List<ObjectTypeExtensionDefinition> objectTypeExtensionDefinitions = registry.objectTypeExtensions().get(schemaType);
-        if (objectTypeExtensionDefinitions != null && !objectTypeExtensionDefinitions.isEmpty()) {
-            return  Optional.ofNullable(objectTypeExtensionDefinitions.get(0));
-        }
-        return Optional.empty();
+    private TypeDefinitionRegistry getRegistry(@NotNull PsiElement psiElement) {
+        return GraphQLSchemaProvider.getInstance(project)
+                .getSchemaInfo(psiElement).getRegistry();
     }
 
-    private List<ObjectTypeDefinition> getTypeDefinitions(TypeDefinitionRegistry registry, String schemaType) {
-        List<ObjectTypeDefinition> list = new ArrayList<>();
-        Optional<ObjectTypeDefinition> objectTypeDefinition = registry.getType(schemaType, ObjectTypeDefinition.class);
-        objectTypeDefinition.ifPresent(list::add);
+    /**
+     * Field definitions by type name and field name, merged over a type and all of its extensions.
+     */
+    public static final class SchemaTable {
+        private final Map<String, ObjectTypeDefinition> objectTypes = new HashMap<>();
+        private final Map<String, Map<String, FieldDefinition>> objectFields = new HashMap<>();
+        private final Map<String, Map<String, FieldDefinition>> interfaceFields = new HashMap<>();
 
-        List<ObjectTypeExtensionDefinition> objectTypeExtensionDefinitions = registry.objectTypeExtensions().get(schemaType);
-        if (objectTypeExtensionDefinitions != null && !objectTypeExtensionDefinitions.isEmpty()) {
-            list.addAll(objectTypeExtensionDefinitions);
+        public @Nullable ObjectTypeDefinition getObjectType(@NotNull String name) {
+            return objectTypes.get(name);
         }
-        return list;
-    }
 
-    private Optional<InterfaceTypeDefinition> getInterfaceTypeDefinition(TypeDefinitionRegistry registry, String schemaType) {
-        Optional<InterfaceTypeDefinition> interfaceTypeDefinition = registry.getType(schemaType, InterfaceTypeDefinition.class);
-        if (interfaceTypeDefinition.isPresent()) {
-            return interfaceTypeDefinition;
+        public @NotNull Map<String, FieldDefinition> getObjectFields(@NotNull String typeName) {
+            return objectFields.getOrDefault(typeName, Map.of());
         }
 
-        List<InterfaceTypeExtensionDefinition> interfaceTypeExtensionDefinitions = registry.interfaceTypeExtensions().get(schemaType);
-        if (interfaceTypeExtensionDefinitions != null && !interfaceTypeExtensionDefinitions.isEmpty()) {
-            return  Optional.ofNullable(interfaceTypeExtensionDefinitions.get(0));
+        /**
+         * Whether an object or interface type declares the field, in its definition or in one of its extensions.
+         */
+        public boolean hasField(@NotNull String typeName, @NotNull String field) {
+            return getObjectFields(typeName).containsKey(field) || interfaceFields.getOrDefault(typeName, Map.of()).containsKey(field);
         }
-        return Optional.empty();
-    }
 
-    private TypeDefinitionRegistry getRegistry(@NotNull PsiElement psiElement) {
-        return GraphQLSchemaProvider.getInstance(project)
-                .getSchemaInfo(psiElement).getRegistry();
+        SchemaTable(TypeDefinitionRegistry registry) {
+            registry.getTypes(ObjectTypeDefinition.class).forEach(type -> {
+                objectTypes.put(type.getName(), type);
+                addFields(objectFields, type.getName(), type.getFieldDefinitions());
+            });
+            registry.objectTypeExtensions().forEach((name, extensions) -> extensions.forEach(extension -> {
+                objectTypes.putIfAbsent(name, extension);
+                addFields(objectFields, name, extension.getFieldDefinitions());
+            }));
+
+            registry.getTypes(InterfaceTypeDefinition.class).forEach(type -> addFields(interfaceFields, type.getName(), type.getFieldDefinitions()));
+            registry.interfaceTypeExtensions().forEach((name, extensions) -> extensions.forEach(extension ->
+                    addFields(interfaceFields, name, extension.getFieldDefinitions())));
+        }
+
+        private static void addFields(Map<String, Map<String, FieldDefinition>> table, String typeName, Collection<FieldDefinition> fields) {
+            Map<String, FieldDefinition> byName = table.computeIfAbsent(typeName, name -> new HashMap<>());
+            fields.forEach(field -> byName.putIfAbsent(field.getName(), field));
+        }
     }
 }
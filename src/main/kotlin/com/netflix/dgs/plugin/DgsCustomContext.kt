@@ -17,13 +17,14 @@
 package com.netflix.dgs.plugin
 
 import com.intellij.psi.PsiElement
-import com.intellij.psi.PsiFile
+import com.intellij.psi.SmartPsiElementPointer
 
 data class DgsCustomContext(
     override val name: String,
-    val psiClass: PsiElement,
-    val psiFile: PsiFile
+    override val annotationPointer: SmartPsiElementPointer<out PsiElement>
 ): NamedNavigationComponent {
-    override val psiAnnotation = psiClass
-    override val type = DgsComponentType.CUSTOM_CONTEXT
+    val psiClass: PsiElement?
+        get() = psiAnnotation
+
+    override val type get() = DgsComponentType.CUSTOM_CONTEXT
 }
\ No newline at end of file
@@ -17,15 +17,16 @@
 package com.netflix.dgs.plugin
 
 import com.intellij.psi.PsiElement
-import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiClass
+import com.intellij.psi.SmartPsiElementPointer
+import com.intellij.psi.util.PsiTreeUtil
+import org.jetbrains.kotlin.psi.KtClassOrObject
 import org.jetbrains.uast.UAnnotation
 import org.jetbrains.uast.evaluateString
 
 data class DgsDataLoader(
     override val name: String,
-    val psiClass: PsiElement,
-    override val psiAnnotation: PsiElement,
-    val psiFile: PsiFile
+    override val annotationPointer: SmartPsiElementPointer<out PsiElement>
 ): NamedNavigationComponent {
     companion object {
         fun isDataLoaderAnnotation(annotation: UAnnotation) = annotation.qualifiedName == "com.netflix.graphql.dgs.DgsDataLoader"
@@ -34,5 +35,8 @@ data class DgsDataLoader(
         }
     }
 
-    override val type = DgsComponentType.DATA_LOADER
+    val psiClass: PsiElement?
+        get() = PsiTreeUtil.getParentOfType(psiAnnotation, PsiClass::class.java, KtClassOrObject::class.java)
+
+    override val type get() = DgsComponentType.DATA_LOADER
 }
\ No newline at end of file
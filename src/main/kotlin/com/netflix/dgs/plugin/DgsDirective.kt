@@ -17,16 +17,17 @@
 package com.netflix.dgs.plugin
 
 import com.intellij.psi.PsiElement
-import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiClass
+import com.intellij.psi.SmartPsiElementPointer
+import com.intellij.psi.util.PsiTreeUtil
+import org.jetbrains.kotlin.psi.KtClassOrObject
 import org.jetbrains.uast.UAnnotation
 import org.jetbrains.uast.evaluateString
 
 data class DgsDirective(
     override val name: String,
-    val psiClass: PsiElement,
-    override val psiAnnotation: PsiElement,
-    val psiFile: PsiFile,
-    val schemaPsi: PsiElement?,
+    override val annotationPointer: SmartPsiElementPointer<out PsiElement>,
+    val schemaReference: SchemaReference?,
 ): NamedNavigationComponent {
     companion object {
         fun isDgsDirectiveAnnotation(annotation: UAnnotation) = "com.netflix.graphql.dgs.DgsDirective" == annotation.qualifiedName
@@ -36,5 +37,11 @@ data class DgsDirective(
         }
     }
 
-    override val type = DgsComponentType.DIRECTIVE
+    val psiClass: PsiElement?
+        get() = PsiTreeUtil.getParentOfType(psiAnnotation, PsiClass::class.java, KtClassOrObject::class.java)
+
+    val schemaPsi: PsiElement?
+        get() = psiAnnotation?.let { schemaReference?.resolve(it) }
+
+    override val type get() = DgsComponentType.DIRECTIVE
 }
\ No newline at end of file
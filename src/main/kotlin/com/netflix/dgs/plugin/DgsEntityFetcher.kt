@@ -18,18 +18,18 @@ package com.netflix.dgs.plugin
 
 import com.intellij.psi.PsiAnnotation
 import com.intellij.psi.PsiElement
-import com.intellij.psi.PsiFile
 import com.intellij.psi.PsiMethod
+import com.intellij.psi.SmartPsiElementPointer
+import com.intellij.psi.util.PsiTreeUtil
+import org.jetbrains.kotlin.psi.KtNamedFunction
 import org.jetbrains.uast.UAnnotation
 import org.jetbrains.uast.evaluateString
 import org.jetbrains.uast.toUElement
 
 data class DgsEntityFetcher(
     override val name: String,
-    val psiMethod: PsiElement,
-    override val psiAnnotation: PsiElement,
-    val psiFile: PsiFile,
-    val schemaPsi: PsiElement?
+    override val annotationPointer: SmartPsiElementPointer<out PsiElement>,
+    val schemaReference: SchemaReference?
 ) : NamedNavigationComponent{
     companion object {
         fun isEntityFetcherAnnotation(annotation: UAnnotation): Boolean {
@@ -54,5 +54,11 @@ data class DgsEntityFetcher(
         }
     }
 
-    override val type = DgsComponentType.ENTITY_FETCHER
+    val psiMethod: PsiElement?
+        get() = PsiTreeUtil.getParentOfType(psiAnnotation, PsiMethod::class.java, KtNamedFunction::class.java)
+
+    val schemaPsi: PsiElement?
+        get() = psiAnnotation?.let { schemaReference?.resolve(it) }
+
+    override val type get() = DgsComponentType.ENTITY_FETCHER
 }
\ No newline at end of file
@@ -21,8 +21,9 @@ import com.intellij.lang.jsgraphql.psi.impl.GraphQLIdentifierImpl
 import com.intellij.lang.jsgraphql.types.language.EnumTypeDefinition
 import com.intellij.lang.jsgraphql.types.schema.idl.TypeDefinitionRegistry
 import com.intellij.psi.PsiAnnotation
+import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiNamedElement
-import org.jetbrains.kotlin.util.removeSuffixIfPresent
+import com.netflix.dgs.plugin.services.DgsTypeMappingService
 import org.jetbrains.uast.UMethod
 
 object InputArgumentUtils {
@@ -33,28 +34,6 @@ object InputArgumentUtils {
     private const val DGS_SUBSCRIPTION_ANNOTATION = "com.netflix.graphql.dgs.DgsSubscription"
     const val DGS_INPUT_ARGUMENT_ANNOTATION = "com.netflix.graphql.dgs.InputArgument"
 
-    private val knownTypes = mapOf("String" to "String",
-        "StringValue" to "String",
-        "Float" to "Double",
-        "FloatValue" to "Double",
-        "Boolean" to "Boolean",
-        "BooleanValue" to "Boolean",
-        "ID" to "String",
-        "IDValue" to "String",
-        "LocalTime" to "LocalTime",
-        "LocalDate" to "LocalDate",
-        "LocalDateTime" to "LocalDateTime",
-        "TimeZone" to "String",
-        "Date" to "LocalDate",
-        "DateTime" to "OffsetDateTime",
-        "Time" to "OffsetTime",
-        "Currency" to "Currency",
-        "Instant" to "Instant",
-        "RelayPageInfo" to "PageInfo",
-        "PageInfo" to "PageInfo",
-        "JSON" to "Object",
-        "Url" to "URL")
-
     fun hasDgsAnnotation(node: UMethod) : Boolean {
         return(node.hasAnnotation(DGS_QUERY_ANNOTATION) || node.hasAnnotation(DGS_SUBSCRIPTION_ANNOTATION) || node.hasAnnotation(DGS_MUTATION_ANNOTATION)
                 || node.hasAnnotation(DGS_DATA_ANNOTATION))
@@ -73,28 +52,31 @@ object InputArgumentUtils {
         return annotation!!
     }
 
-    fun getHintForInputArgument(input: GraphQLInputValueDefinition, typeRegistry: TypeDefinitionRegistry, isJavaFile: Boolean) : String {
+    /**
+     * The context is the element the hint is for, e.g. the file of a data fetcher, whose module decides the type mapping.
+     */
+    fun getHintForInputArgument(input: GraphQLInputValueDefinition, typeRegistry: TypeDefinitionRegistry, isJavaFile: Boolean, context: PsiElement) : String {
         return if (isJavaFile) {
-            getHintForInputArgumentInJava(input, typeRegistry)
+            getHintForInputArgumentInJava(input, typeRegistry, context)
         } else {
-            getHintForInputArgumentInKotlin(input, typeRegistry)
+            getHintForInputArgumentInKotlin(input, typeRegistry, context)
         }
     }
 
-    private fun getHintForInputArgumentInJava(input: GraphQLInputValueDefinition, typeRegistry: TypeDefinitionRegistry) : String {
+    private fun getHintForInputArgumentInJava(input: GraphQLInputValueDefinition, typeRegistry: TypeDefinitionRegistry, context: PsiElement) : String {
         val argName = (input.nameIdentifier as GraphQLIdentifierImpl).name
         val inputArgumentHint = StringBuilder("@InputArgument ")
 
-        inputArgumentHint.append(getType(input.type!!, true) + " " + argName)
+        inputArgumentHint.append(getType(input.type!!, true, context) + " " + argName)
         return inputArgumentHint.toString()
 
     }
 
-    private fun getHintForInputArgumentInKotlin(input: GraphQLInputValueDefinition, typeRegistry: TypeDefinitionRegistry) : String {
+    private fun getHintForInputArgumentInKotlin(input: GraphQLInputValueDefinition, typeRegistry: TypeDefinitionRegistry, context: PsiElement) : String {
         val argName = (input.nameIdentifier as GraphQLIdentifierImpl).name
         val inputArgumentHint = StringBuilder("@InputArgument ")
 
-        inputArgumentHint.append(argName + ": "+ getType(input.type!!, false)  + " ")
+        inputArgumentHint.append(argName + ": "+ getType(input.type!!, false, context)  + " ")
         return inputArgumentHint.toString()
     }
 
@@ -110,15 +92,8 @@ object InputArgumentUtils {
         return false
     }
 
-    fun isCustomScalarType(inputType: GraphQLType, typeRegistry: TypeDefinitionRegistry) : Boolean {
-        if (inputType is GraphQLTypeName) {
-            val inputTypeName = (inputType as PsiNamedElement).name!!
-            if (knownTypes.containsKey(inputTypeName) || inputTypeName == "Int" || inputTypeName == "IntValue") {
-                return false
-            }
-            return typeRegistry.scalars().contains(inputTypeName) ||  typeRegistry.scalarTypeExtensions().containsKey(inputTypeName)
-        }
-        return false
+    fun isCustomScalarType(inputType: GraphQLType, typeRegistry: TypeDefinitionRegistry, context: PsiElement) : Boolean {
+        return DgsTypeMappingService.getInstance(inputType.project).isUnmappedScalar(inputType, typeRegistry, context)
     }
 
     private fun isListType(inputType: GraphQLType) : Boolean {
@@ -132,48 +107,7 @@ object InputArgumentUtils {
         }
     }
 
-    fun getType(inputType: GraphQLType, isJavaType: Boolean) : String {
-        return when (inputType) {
-            is GraphQLTypeName -> {
-                val rawType = getRawType((inputType as PsiNamedElement).name!!, isJavaType)
-                if (isJavaType) {
-                    rawType
-                } else {
-                    "$rawType?"
-                }
-            }
-            is GraphQLListType -> {
-                val type = "List<" + getType(inputType.type, isJavaType) + ">"
-                if (isJavaType) {
-                    type
-                } else {
-                    "$type?"
-                }
-            }
-            is GraphQLNonNullType -> {
-                val type = getType(inputType.type, isJavaType)
-                if (isJavaType) {
-                    type
-                } else {
-                    type.removeSuffixIfPresent("?")
-                }
-            }
-            else -> ""
-        }
-    }
-
-    private fun getRawType(typeName: String, isJavaFile: Boolean) : String {
-        if ( isJavaFile && (typeName == "Int" || typeName == "IntValue")) {
-            return "Integer"
-        } else if (typeName == "Int" || typeName == "IntValue") {
-            return "Int"
-        }
-
-        val type = if (knownTypes.containsKey(typeName)) {
-            knownTypes[typeName]!!
-        } else {
-            typeName
-        }
-        return type
+    fun getType(inputType: GraphQLType, isJavaType: Boolean, context: PsiElement) : String {
+        return DgsTypeMappingService.getInstance(inputType.project).getJvmType(inputType, isJavaType, context)
     }
 }
@@ -17,18 +17,22 @@
 package com.netflix.dgs.plugin
 
 import com.intellij.psi.PsiElement
-import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiMethod
+import com.intellij.psi.SmartPsiElementPointer
+import com.intellij.psi.util.PsiTreeUtil
+import org.jetbrains.kotlin.psi.KtNamedFunction
 import org.jetbrains.uast.UAnnotation
 
 data class DgsRuntimeWiring(
     override val name: String,
-    val psiMethod: PsiElement,
-    override val psiAnnotation: PsiElement,
-    val psiFile: PsiFile
+    override val annotationPointer: SmartPsiElementPointer<out PsiElement>
 ): NamedNavigationComponent {
     companion object {
         fun isDgsRuntimeWiringAnnotation(annotation: UAnnotation) = annotation.qualifiedName == "com.netflix.graphql.dgs.DgsRuntimeWiring"
     }
 
-    override val type = DgsComponentType.RUNTIME_WIRING
+    val psiMethod: PsiElement?
+        get() = PsiTreeUtil.getParentOfType(psiAnnotation, PsiMethod::class.java, KtNamedFunction::class.java)
+
+    override val type get() = DgsComponentType.RUNTIME_WIRING
 }
\ No newline at end of file
@@ -17,19 +17,26 @@
 package com.netflix.dgs.plugin
 
 import com.intellij.psi.PsiElement
-import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiClass
+import com.intellij.psi.SmartPsiElementPointer
+import com.intellij.psi.util.PsiTreeUtil
+import org.jetbrains.kotlin.psi.KtClassOrObject
 import org.jetbrains.uast.UAnnotation
 
 data class DgsScalar(
     override val name: String,
-    val psiClass: PsiElement,
-    override val psiAnnotation: PsiElement,
-    val psiFile: PsiFile,
-    val schemaPsi: PsiElement?
+    override val annotationPointer: SmartPsiElementPointer<out PsiElement>,
+    val schemaReference: SchemaReference?
 ): NamedNavigationComponent {
     companion object {
         fun isDgsScalarAnnotation(annotation: UAnnotation) = annotation.qualifiedName == "com.netflix.graphql.dgs.DgsScalar"
     }
 
-    override val type = DgsComponentType.SCALAR
+    val psiClass: PsiElement?
+        get() = PsiTreeUtil.getParentOfType(psiAnnotation, PsiClass::class.java, KtClassOrObject::class.java)
+
+    val schemaPsi: PsiElement?
+        get() = psiAnnotation?.let { schemaReference?.resolve(it) }
+
+    override val type get() = DgsComponentType.SCALAR
 }
\ No newline at end of file
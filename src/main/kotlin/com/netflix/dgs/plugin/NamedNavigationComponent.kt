@@ -16,12 +16,29 @@
 
 package com.netflix.dgs.plugin
 
+import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.SmartPsiElementPointer
 
+/**
+ * A DGS component in the component index. Components only keep a pointer to the annotation that declares them, so
+ * a cached index does not keep the PSI of every DGS file in memory. The PSI getters resolve the pointer on demand and
+ * return null once the declaration is gone.
+ */
 interface NamedNavigationComponent {
     val name: String
-    val psiAnnotation: PsiElement
+    val annotationPointer: SmartPsiElementPointer<out PsiElement>
     val type: DgsComponentType
+
+    val psiAnnotation: PsiElement?
+        get() = annotationPointer.element
+
+    val psiFile: PsiFile?
+        get() = annotationPointer.containingFile
+
+    val virtualFile: VirtualFile?
+        get() = annotationPointer.virtualFile
 }
 
 enum class DgsComponentType(val description: String) {
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.intellij.lang.jsgraphql.GraphQLLanguage
+import com.intellij.psi.PsiElement
+import com.intellij.psi.SmartPointerManager
+import com.intellij.psi.SmartPsiElementPointer
+import com.intellij.psi.util.PsiModificationTracker
+import com.netflix.dgs.plugin.services.DgsMetrics
+import com.netflix.dgs.plugin.services.internal.GraphQLSchemaRegistry
+
+/**
+ * Points at the schema definition a DGS component implements, by its coordinates in the schema. The definition is
+ * only looked up on first access and is then reused until a GraphQL file changes.
+ *
+ * References are equal when their coordinates are equal, regardless of what they currently resolve to.
+ */
+data class SchemaReference(val kind: Kind, val parentType: String?, val name: String) {
+    enum class Kind { FIELD, SCALAR, DIRECTIVE }
+
+    // Keeps a pointer rather than the definition itself, so that cached references do not pin the schema PSI
+    private class Resolved(val stamp: Long, val pointer: SmartPsiElementPointer<PsiElement>?)
+
+    @Volatile
+    private var resolved: Resolved? = null
+
+    /**
+     * Resolves the reference in the schema visible from [context], the annotation that declares the component.
+     */
+    fun resolve(context: PsiElement): PsiElement? {
+        val project = context.project
+        val metrics = DgsMetrics.getInstance(project)
+        val stamp = PsiModificationTracker.getInstance(project).forLanguage(GraphQLLanguage.INSTANCE).modificationCount
+        val current = resolved
+        if (current != null && current.stamp == stamp) {
+            val element = current.pointer?.element
+            if (current.pointer == null || element != null) {
+                metrics.increment("schema.resolve.cached")
+                return element
+            }
+        }
+
+        val registry = project.getService(GraphQLSchemaRegistry::class.java)
+        val element = metrics.time("schema.resolve") {
+            when (kind) {
+                Kind.FIELD -> registry.psiForSchemaType(context, parentType, name)
+                Kind.SCALAR -> registry.psiForScalar(context, name)
+                Kind.DIRECTIVE -> registry.psiForDirective(context, name)
+            }?.orElse(null)
+        }
+        resolved = Resolved(stamp, element?.let { SmartPointerManager.createPointer(it) })
+        return element
+    }
+
+    companion object {
+        @JvmStatic
+        fun field(parentType: String, field: String) = SchemaReference(Kind.FIELD, parentType, field)
+
+        @JvmStatic
+        fun entity(typeName: String) = SchemaReference(Kind.FIELD, "_entities", typeName)
+
+        @JvmStatic
+        fun scalar(name: String) = SchemaReference(Kind.SCALAR, null, name)
+
+        @JvmStatic
+        fun directive(name: String) = SchemaReference(Kind.DIRECTIVE, null, name)
+    }
+}
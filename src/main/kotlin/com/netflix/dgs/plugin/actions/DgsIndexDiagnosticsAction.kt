@@ -0,0 +1,47 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin.actions
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread
+import com.intellij.openapi.actionSystem.AnAction
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.application.runReadAction
+import com.intellij.openapi.ui.Messages
+import com.netflix.dgs.plugin.provider.DgsProjectStructureProvider
+import com.netflix.dgs.plugin.services.DgsMetrics
+import com.netflix.dgs.plugin.services.DgsService
+
+/**
+ * Shows the size of the current DGS component index and the metrics recorded by [DgsMetrics].
+ */
+class DgsIndexDiagnosticsAction : AnAction() {
+    override fun getActionUpdateThread() = ActionUpdateThread.BGT
+
+    override fun update(e: AnActionEvent) {
+        e.presentation.isEnabledAndVisible = e.project != null
+    }
+
+    override fun actionPerformed(e: AnActionEvent) {
+        val project = e.project ?: return
+        val dgsService = project.getService(DgsService::class.java)
+        val (index, modules) = runReadAction { dgsService.dgsComponentIndex to dgsService.moduleComponentIndexes.size }
+
+        val components = DgsProjectStructureProvider.groupLabels.entries.joinToString("\n") { (type, label) -> "$label: ${index.getComponents(type).size}" }
+        val text = "DGS modules: $modules\n$components\n\n${DgsMetrics.getInstance(project).summary()}"
+        Messages.showInfoMessage(project, text, "DGS Index Diagnostics")
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin.cli
+
+import com.google.gson.stream.JsonWriter
+import java.io.Closeable
+import java.io.Writer
+import java.nio.file.Path
+
+data class DgsCheckRule(val id: String, val name: String)
+
+/**
+ * A problem found by `dgsCheck`. The path is relative to the project directory, line and column start at 1.
+ */
+data class DgsCheckProblem(val ruleId: String, val level: String, val path: String, val line: Int, val column: Int, val message: String)
+
+/**
+ * Streams the results of a `dgsCheck` run. Each problem is written and flushed as soon as it is found, so a CI log
+ * shows results while the run is still going. Writes may come from several threads.
+ */
+abstract class DgsCheckReportWriter(writer: Writer) : Closeable {
+    protected val json = JsonWriter(writer).apply { setIndent("  ") }
+
+    abstract fun begin(rules: List<DgsCheckRule>)
+
+    protected abstract fun writeProblem(problem: DgsCheckProblem)
+
+    /**
+     * Ends the report with the duration of each phase in milliseconds.
+     */
+    abstract fun end(timings: Map<String, Long>)
+
+    @Synchronized
+    fun write(problem: DgsCheckProblem) {
+        writeProblem(problem)
+        json.flush()
+    }
+
+    protected fun writeTimings(timings: Map<String, Long>) {
+        json.beginObject()
+        timings.forEach { (phase, millis) -> json.name(phase).value(millis) }
+        json.endObject()
+    }
+
+    override fun close() = json.close()
+
+    companion object {
+        const val SARIF = "sarif"
+        const val JSON = "json"
+
+        /**
+         * Creates a writer for the given format. Problem paths are relative to [srcRoot], the project directory.
+         */
+        fun create(format: String, writer: Writer, srcRoot: Path): DgsCheckReportWriter = when (format) {
+            SARIF -> SarifReportWriter(writer, srcRoot)
+            JSON -> JsonReportWriter(writer)
+            else -> throw IllegalArgumentException("Unknown format '$format', expected $SARIF or $JSON")
+        }
+    }
+}
+
+/**
+ * Writes a SARIF 2.1.0 log with a single run. Relative paths are resolved against the `SRCROOT` base of the run,
+ * the project directory. Phase timings are added to the properties of the run.
+ */
+private class SarifReportWriter(writer: Writer, private val srcRoot: Path) : DgsCheckReportWriter(writer) {
+    override fun begin(rules: List<DgsCheckRule>) {
+        json.beginObject()
+        json.name("\$schema").value("https://json.schemastore.org/sarif-2.1.0.json")
+        json.name("version").value("2.1.0")
+        json.name("runs").beginArray().beginObject()
+        json.name("tool").beginObject().name("driver").beginObject()
+        json.name("name").value("DGS")
+        json.name("rules").beginArray()
+        rules.forEach { json.beginObject().name("id").value(it.id).name("name").value(it.name).endObject() }
+        json.endArray()
+        json.endObject().endObject()
+        // a base URI has to end with a slash, otherwise its last segment is dropped when resolving paths against it
+        val srcRootUri = srcRoot.toAbsolutePath().normalize().toUri().toString().let { if (it.endsWith("/")) it else "$it/" }
+        json.name("originalUriBaseIds").beginObject()
+        json.name(SRCROOT).beginObject().name("uri").value(srcRootUri).endObject()
+        json.endObject()
+        json.name("results").beginArray()
+        json.flush()
+    }
+
+    override fun writeProblem(problem: DgsCheckProblem) {
+        json.beginObject()
+        json.name("ruleId").value(problem.ruleId)
+        json.name("level").value(problem.level)
+        json.name("message").beginObject().name("text").value(problem.message).endObject()
+        json.name("locations").beginArray().beginObject()
+        json.name("physicalLocation").beginObject()
+        json.name("artifactLocation").beginObject().name("uri").value(problem.path)
+        // files outside the project directory are reported with their absolute path
+        if (!Path.of(problem.path).isAbsolute) {
+            json.name("uriBaseId").value(SRCROOT)
+        }
+        json.endObject()
+        json.name("region").beginObject().name("startLine").value(problem.line).name("startColumn").value(problem.column).endObject()
+        json.endObject()
+        json.endObject().endArray()
+        json.endObject()
+    }
+
+    override fun end(timings: Map<String, Long>) {
+        json.endArray()
+        json.name("properties").beginObject().name("timings")
+        writeTimings(timings)
+        json.endObject()
+        json.endObject().endArray()
+        json.endObject()
+        json.flush()
+    }
+
+    companion object {
+        private const val SRCROOT = "SRCROOT"
+    }
+}
+
+/**
+ * Writes a plain JSON report with a `problems` array and the phase timings.
+ */
+private class JsonReportWriter(writer: Writer) : DgsCheckReportWriter(writer) {
+    override fun begin(rules: List<DgsCheckRule>) {
+        json.beginObject()
+        json.name("problems").beginArray()
+        json.flush()
+    }
+
+    override fun writeProblem(problem: DgsCheckProblem) {
+        json.beginObject()
+        json.name("inspection").value(problem.ruleId)
+        json.name("level").value(problem.level)
+        json.name("file").value(problem.path)
+        json.name("line").value(problem.line)
+        json.name("column").value(problem.column)
+        json.name("message").value(problem.message)
+        json.endObject()
+    }
+
+    override fun end(timings: Map<String, Long>) {
+        json.endArray()
+        json.name("timings")
+        writeTimings(timings)
+        json.endObject()
+        json.flush()
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin.cli
+
+import com.intellij.codeHighlighting.HighlightDisplayLevel
+import com.intellij.codeInspection.*
+import com.intellij.codeInspection.ex.LocalInspectionToolWrapper
+import com.intellij.concurrency.JobLauncher
+import com.intellij.ide.impl.OpenProjectTask
+import com.intellij.lang.jsgraphql.GraphQLFileType
+import com.intellij.lang.jsgraphql.GraphQLLanguage
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ApplicationStarter
+import com.intellij.openapi.application.ex.ApplicationEx
+import com.intellij.openapi.application.ex.ApplicationManagerEx
+import com.intellij.openapi.application.runReadAction
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.ex.ProjectManagerEx
+import com.intellij.openapi.util.registry.Registry
+import com.intellij.openapi.util.TextRange
+import com.intellij.openapi.vfs.LocalFileSystem
+import com.intellij.openapi.vfs.VfsUtilCore
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.*
+import com.intellij.psi.search.FileTypeIndex
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.util.Processor
+import com.netflix.dgs.plugin.MyBundle
+import com.netflix.dgs.plugin.hints.DgsSchemaConsistencyInspector
+import com.netflix.dgs.plugin.services.DgsComponentIndex
+import com.netflix.dgs.plugin.services.DgsService
+import com.netflix.dgs.plugin.services.internal.DgsServiceImpl
+import java.io.OutputStreamWriter
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Runs the DGS inspections on a project without the IDE UI, for CI:
+ *
+ * ```
+ * idea dgsCheck <project directory> [--format=sarif|json] [--output=<file>]
+ * ```
+ *
+ * The project is opened from its stored project model without running build tool imports, so nothing is downloaded.
+ * The component index is built in parallel, the local DGS inspections run concurrently on the component and schema
+ * files, and the schema consistency checks run once on the whole index. Problems are streamed to the output as they
+ * are found, followed by the duration of each phase.
+ *
+ * The exit code is 0 when no warning or error was found, 1 when one was, 2 for invalid arguments, 3 when the check
+ * failed, and 4 when the project could not be opened or none of its modules uses DGS, e.g. because its project model
+ * has not been imported yet. A project that was not checked never passes.
+ */
+class DgsCheckStarter : ApplicationStarter {
+    override val requiredModality: Int
+        get() = ApplicationStarter.NOT_IN_EDT
+
+    override fun main(args: List<String>) {
+        val options = try {
+            Options.parse(args.drop(1))
+        } catch (e: IllegalArgumentException) {
+            System.err.println(e.message)
+            System.err.println(USAGE)
+            exit(2)
+            return
+        }
+
+        val exitCode = try {
+            check(options)
+        } catch (e: Exception) {
+            System.err.println("dgsCheck failed: $e")
+            e.printStackTrace()
+            3
+        }
+        exit(exitCode)
+    }
+
+    /**
+     * Shuts the application down the regular way, so that it is disposed and its caches are saved, with the exit code
+     * of the check.
+     */
+    private fun exit(exitCode: Int) {
+        ApplicationManagerEx.getApplicationEx().exit(ApplicationEx.FORCE_EXIT or ApplicationEx.EXIT_CONFIRMED, exitCode)
+    }
+
+    private fun check(options: Options): Int {
+        val timings = LinkedHashMap<String, Long>()
+        val project = phase("open", timings) {
+            ProjectManagerEx.getInstanceEx().openProject(options.projectPath, OpenProjectTask { runConfigurators = false })
+        }
+        if (project == null) {
+            System.err.println("dgsCheck: could not open project ${options.projectPath}")
+            return NOT_CHECKED
+        }
+
+        try {
+            phase("smartMode", timings) { DumbService.getInstance(project).waitForSmartMode() }
+
+            val dgsService = project.getService(DgsService::class.java)
+            if (!runReadAction { dgsService.isDgsProject(project) }) {
+                System.err.println("dgsCheck: no module of ${options.projectPath} uses DGS, is the project model imported?")
+                return NOT_CHECKED
+            }
+
+            val index = phase("index", timings) {
+                // restored when the project is closed
+                Registry.get(DgsServiceImpl.PARALLEL_BUILD_REGISTRY_KEY).setValue(true, project)
+                // the index may already have been built while the project was opening, the check measures a full build
+                dgsService.clearCache()
+                var index = dgsService.refreshDgsComponentIndex().get()
+                // a refresh that was running before the cache was cleared is shared, so refresh until it is up to date
+                while (true) {
+                    val next = dgsService.refreshDgsComponentIndex().get()
+                    if (next === index) {
+                        break
+                    }
+                    index = next
+                }
+                index
+            }
+
+            val output = options.output?.let { Files.newBufferedWriter(it) } ?: OutputStreamWriter(System.out, Charsets.UTF_8)
+            val failures = AtomicInteger()
+            DgsCheckReportWriter.create(options.format, output, project.basePath?.let { Path.of(it) } ?: options.projectPath).use { writer ->
+                phase("inspections", timings) {
+                    ProblemReporter(project, writer, failures).run(index)
+                }
+                writer.end(timings)
+            }
+
+            timings.forEach { (phase, millis) -> System.err.println("dgsCheck: $phase took $millis ms") }
+            System.err.println("dgsCheck: ${failures.get()} warnings or errors")
+            return if (failures.get() > 0) 1 else 0
+        } finally {
+            ApplicationManager.getApplication().invokeAndWait { ProjectManagerEx.getInstanceEx().forceCloseProject(project) }
+        }
+    }
+
+    private inline fun <T> phase(name: String, timings: MutableMap<String, Long>, action: () -> T): T {
+        val start = System.nanoTime()
+        try {
+            return action()
+        } finally {
+            timings[name] = (System.nanoTime() - start) / 1_000_000
+        }
+    }
+
+    private class ProblemReporter(private val project: Project, private val writer: DgsCheckReportWriter, private val failures: AtomicInteger) {
+        private val baseDir = project.basePath?.let { LocalFileSystem.getInstance().findFileByPath(it) }
+        private val tools = LocalInspectionEP.LOCAL_INSPECTION.extensionList
+            .filter { it.groupPathKey == "dgs" }
+            .map { LocalInspectionToolWrapper(it) }
+        private val consistencyRule = DgsCheckRule(DgsSchemaConsistencyInspector().shortName, MyBundle.getMessage("dgs.inspection.schema.consistency"))
+
+        fun run(index: DgsComponentIndex) {
+            writer.begin(tools.map { DgsCheckRule(it.shortName, it.displayName) } + consistencyRule)
+
+            val files = runReadAction {
+                index.componentFiles() + FileTypeIndex.getFiles(GraphQLFileType.INSTANCE, GlobalSearchScope.projectScope(project))
+            }.toList()
+            ProgressManager.getInstance().runProcess({
+                JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, ProgressManager.getInstance().progressIndicator, Processor { file ->
+                    runReadAction { inspectFile(file) }
+                    true
+                })
+            }, EmptyProgressIndicator())
+
+            runReadAction {
+                DgsSchemaConsistencyInspector.checkProject(project, index) { element, message ->
+                    report(consistencyRule.id, "warning", element, null, message)
+                }
+            }
+        }
+
+        private fun inspectFile(file: VirtualFile) {
+            val psiFile = PsiManager.getInstance(project).findFile(file) ?: return
+            val isGraphQL = psiFile.language == GraphQLLanguage.INSTANCE
+            tools.filter { (it.language == GraphQLLanguage.INSTANCE.id) == isGraphQL }.forEach { wrapper ->
+                val holder = ProblemsHolder(InspectionManager.getInstance(project), psiFile, false)
+                val visitor = wrapper.tool.buildVisitor(holder, false)
+                psiFile.accept(object : PsiRecursiveElementWalkingVisitor() {
+                    override fun visitElement(element: PsiElement) {
+                        element.accept(visitor)
+                        super.visitElement(element)
+                    }
+                })
+
+                holder.results.forEach { descriptor ->
+                    val element = descriptor.psiElement ?: return@forEach
+                    val message = ProblemDescriptorUtil.renderDescriptionMessage(descriptor, element)
+                    report(wrapper.shortName, level(descriptor.highlightType, wrapper.defaultLevel), element, descriptor.textRangeInElement, message)
+                }
+            }
+        }
+
+        private fun report(ruleId: String, level: String, element: PsiElement, rangeInElement: TextRange?, message: String) {
+            val file = element.containingFile ?: return
+            val offset = element.textRange.startOffset + (rangeInElement?.startOffset ?: 0)
+            val document = PsiDocumentManager.getInstance(project).getDocument(file)
+            val line = document?.getLineNumber(offset) ?: 0
+            val column = document?.let { offset - it.getLineStartOffset(line) } ?: 0
+            val path = file.virtualFile?.let { vf -> baseDir?.let { VfsUtilCore.getRelativePath(vf, it) } ?: vf.path } ?: file.name
+
+            if (level != "note") {
+                failures.incrementAndGet()
+            }
+            writer.write(DgsCheckProblem(ruleId, level, path, line + 1, column + 1, message))
+        }
+
+        private fun level(highlightType: ProblemHighlightType, defaultLevel: HighlightDisplayLevel): String = when (highlightType) {
+            ProblemHighlightType.ERROR, ProblemHighlightType.GENERIC_ERROR -> "error"
+            ProblemHighlightType.WEAK_WARNING, ProblemHighlightType.INFORMATION -> "note"
+            ProblemHighlightType.GENERIC_ERROR_OR_WARNING -> if (defaultLevel == HighlightDisplayLevel.ERROR) "error" else "warning"
+            else -> "warning"
+        }
+    }
+
+    private class Options(val projectPath: Path, val format: String, val output: Path?) {
+        companion object {
+            fun parse(args: List<String>): Options {
+                var projectPath: Path? = null
+                var format = DgsCheckReportWriter.SARIF
+                var output: Path? = null
+                args.forEach { arg ->
+                    when {
+                        arg.startsWith("--format=") -> format = arg.removePrefix("--format=")
+                        arg.startsWith("--output=") -> output = Path.of(arg.removePrefix("--output="))
+                        arg.startsWith("--") -> throw IllegalArgumentException("Unknown option $arg")
+                        projectPath == null -> projectPath = Path.of(arg).toAbsolutePath().normalize()
+                        else -> throw IllegalArgumentException("Unexpected argument $arg")
+                    }
+                }
+
+                require(format == DgsCheckReportWriter.SARIF || format == DgsCheckReportWriter.JSON) { "Unknown format $format" }
+                return Options(projectPath ?: throw IllegalArgumentException("Missing project directory"), format, output)
+            }
+        }
+    }
+
+    companion object {
+        private const val NOT_CHECKED = 4
+        private const val USAGE = "Usage: dgsCheck <project directory> [--format=sarif|json] [--output=<file>]"
+    }
+}
@@ -23,6 +23,7 @@ import com.intellij.psi.*
 import com.intellij.uast.UastVisitorAdapter
 import com.netflix.dgs.plugin.DgsConstants
 import com.netflix.dgs.plugin.MyBundle
+import com.netflix.dgs.plugin.services.DgsMetrics
 import com.netflix.dgs.plugin.services.DgsService
 import org.jetbrains.kotlin.idea.util.addAnnotation
 import org.jetbrains.kotlin.name.ClassId
@@ -35,14 +36,13 @@ import java.util.*
 
 class DgsComponentInspector : AbstractBaseUastLocalInspectionTool() {
     override fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean): PsiElementVisitor {
-        return UastVisitorAdapter(object : AbstractUastNonRecursiveVisitor() {
+        if (!holder.project.getService(DgsService::class.java).isDgsElement(holder.file)) {
+            return PsiElementVisitor.EMPTY_VISITOR
+        }
+
+        return DgsMetrics.getInstance(holder.project).timedVisitor("inspection.$shortName", UastVisitorAdapter(object : AbstractUastNonRecursiveVisitor() {
             @Suppress("UElementAsPsi")
             override fun visitClass(node: UClass): Boolean {
-                val dgsService = node.project.getService(DgsService::class.java)
-                if(!dgsService.isDgsProject(node.project)) {
-                    return false
-                }
-
                 val hasDgsComponentAnnotation: Boolean =
                     node.javaPsi.hasAnnotation("com.netflix.graphql.dgs.DgsComponent")
                 if (Arrays.stream(node.methods)
@@ -62,7 +62,7 @@ class DgsComponentInspector : AbstractBaseUastLocalInspectionTool() {
                 }
                 return false
             }
-        }, false)
+        }, false))
     }
 
     object DgsComponentQuickfix : LocalQuickFix {
@@ -95,7 +95,6 @@ class DgsComponentInspector : AbstractBaseUastLocalInspectionTool() {
                 val fqName = ClassId.fromString("com/netflix/graphql/dgs/DgsComponent")
                 sourcePsi.addAnnotation(fqName)
             }
-            project.getService(DgsService::class.java).clearCache()
         }
     }
 }
\ No newline at end of file
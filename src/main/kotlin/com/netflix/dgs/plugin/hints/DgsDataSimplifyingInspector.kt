@@ -23,7 +23,7 @@ import com.intellij.psi.*
 import com.intellij.psi.util.parentOfType
 import com.intellij.uast.UastVisitorAdapter
 import com.netflix.dgs.plugin.MyBundle
-import com.netflix.dgs.plugin.services.DgsService
+import com.netflix.dgs.plugin.services.DgsMetrics
 import org.jetbrains.kotlin.idea.util.addAnnotation
 import org.jetbrains.kotlin.name.ClassId
 import org.jetbrains.kotlin.psi.KtFile
@@ -34,15 +34,14 @@ import org.jetbrains.uast.visitor.AbstractUastNonRecursiveVisitor
 @Suppress("UElementAsPsi")
 class DgsDataSimplifyingInspector : AbstractBaseUastLocalInspectionTool() {
     override fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean): PsiElementVisitor {
+        // only files that declare data fetchers can have something to simplify
+        if (DgsFileAnalysis.getInstance(holder.file).isEmpty()) {
+            return PsiElementVisitor.EMPTY_VISITOR
+        }
 
-        return UastVisitorAdapter(object : AbstractUastNonRecursiveVisitor() {
+        return DgsMetrics.getInstance(holder.project).timedVisitor("inspection.$shortName", UastVisitorAdapter(object : AbstractUastNonRecursiveVisitor() {
             @Suppress("UElementAsPsi")
             override fun visitMethod(node: UMethod): Boolean {
-                val dgsService = node.project.getService(DgsService::class.java)
-                if (!dgsService.isDgsProject(node.project)) {
-                    return false
-                }
-
                 if (node.hasAnnotation(DGS_DATA_ANNOTATION)) {
                     val dgsDataAnnotation = node.getAnnotation(DGS_DATA_ANNOTATION)
                     val parentTypeAttribute = dgsDataAnnotation?.findAttribute("parentType")
@@ -68,7 +67,7 @@ class DgsDataSimplifyingInspector : AbstractBaseUastLocalInspectionTool() {
 
                 return super.visitMethod(node)
             }
-        }, false)
+        }, false))
     }
 
     companion object {
@@ -112,8 +111,6 @@ class DgsDataSimplifyingInspector : AbstractBaseUastLocalInspectionTool() {
                 }
 
                 method?.sourcePsi?.addBefore(newAnnotation, method.modifierList)
-
-                project.getService(DgsService::class.java).clearCache()
             } else if (file is KtFile) {
                 if (fieldValue != null && fieldValue != method?.name) {
                     (method?.sourcePsi as KtFunction).addAnnotation(
@@ -123,7 +120,6 @@ class DgsDataSimplifyingInspector : AbstractBaseUastLocalInspectionTool() {
                 } else {
                     (method?.sourcePsi as KtFunction).addAnnotation(annotationFQNKotlin)
                 }
-                project.getService(DgsService::class.java).clearCache()
             }
 
             descriptor.psiElement.delete()
@@ -22,54 +22,48 @@ import com.intellij.codeInspection.ProblemsHolder
 import com.intellij.lang.jsgraphql.psi.GraphQLDirective
 import com.intellij.lang.jsgraphql.psi.GraphQLObjectTypeDefinition
 import com.intellij.lang.jsgraphql.psi.GraphQLObjectTypeExtensionDefinition
-import com.intellij.lang.jsgraphql.psi.impl.GraphQLDirectiveImpl
+import com.intellij.lang.jsgraphql.psi.GraphQLVisitor
 import com.intellij.lang.jsgraphql.psi.impl.GraphQLIdentifierImpl
-import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiElementVisitor
 import com.netflix.dgs.plugin.MyBundle
+import com.netflix.dgs.plugin.services.DgsMetrics
 import com.netflix.dgs.plugin.services.DgsService
 
 
 class DgsEntityFetcherInspector : LocalInspectionTool() {
     override fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean): PsiElementVisitor {
-        return object : PsiElementVisitor() {
-            override fun visitElement(element: PsiElement) {
-                val dgsService = element.project.getService(DgsService::class.java)
-                if(!dgsService.isDgsProject(element.project)) {
-                    return
-                }
-
-                var directives: List<GraphQLDirective> = emptyList()
-                if (element is GraphQLObjectTypeDefinition) {
-                    directives = element.directives
-                }
-                if (element is GraphQLObjectTypeExtensionDefinition){
-                    directives = element.directives
-                }
-                val keyDirective = directives.find { (it.nameIdentifier as GraphQLIdentifierImpl?)?.name == "key" }
-                if (keyDirective != null) {
-                    val isNotResolvable = keyDirective.arguments?.argumentList?.any { it.name == "resolvable" && it.value?.text.equals("false") } ?: false
+        if (!holder.project.getService(DgsService::class.java).isDgsSchemaFile(holder.file)) {
+            return PsiElementVisitor.EMPTY_VISITOR
+        }
 
-                    // if the key directive has a resolvable argument, we don't need to check for the entity fetcher
-                    if(isNotResolvable) {
-                        return
-                    }
+        val entities by lazy(LazyThreadSafetyMode.NONE) { FederatedEntityTable.getInstance(holder.file) }
+        return DgsMetrics.getInstance(holder.project).timedVisitor("inspection.$shortName", object : GraphQLVisitor() {
+            override fun visitObjectTypeDefinition(element: GraphQLObjectTypeDefinition) {
+                checkEntityFetcher(element.typeNameDefinition?.name, element.directives)
+            }
 
-                    // look up the corresponding entity fetcher in the type registry
-                    val entityFetcher = dgsService.dgsComponentIndex.entityFetchers.find { it.schemaPsi == element }
-                    if (entityFetcher == null) {
-                        val message = MyBundle.getMessage(
-                            "dgs.inspection.missing.entityfetcher.annotation"
-                        )
+            override fun visitObjectTypeExtensionDefinition(element: GraphQLObjectTypeExtensionDefinition) {
+                checkEntityFetcher(element.typeName?.name, element.directives)
+            }
 
-                        holder.registerProblem(
-                                (directives[0] as GraphQLDirectiveImpl),
-                                message,
-                                ProblemHighlightType.WARNING
-                        )
-                    }
+            private fun checkEntityFetcher(typeName: String?, directives: List<GraphQLDirective>) {
+                // types without @key and entities that are not resolvable here don't need an entity fetcher
+                val entity = entities[typeName]
+                if (entity == null || !entity.resolvable || entity.hasEntityFetcher) {
+                    return
                 }
+
+                // keys marked resolvable: false don't need the fetcher, so the problem goes on a resolvable one
+                val keyDirective = directives.find { (it.nameIdentifier as GraphQLIdentifierImpl?)?.name == "key" && isResolvable(it) } ?: return
+                holder.registerProblem(
+                    keyDirective,
+                    MyBundle.getMessage("dgs.inspection.missing.entityfetcher.annotation"),
+                    ProblemHighlightType.WARNING
+                )
             }
-        }
+
+            private fun isResolvable(keyDirective: GraphQLDirective): Boolean =
+                keyDirective.arguments?.argumentList.orEmpty().none { it.name == "resolvable" && it.value?.text == "false" }
+        })
     }
-}
\ No newline at end of file
+}
@@ -26,7 +26,7 @@ import com.intellij.psi.PsiElementVisitor
 import com.intellij.uast.UastVisitorAdapter
 import com.netflix.dgs.plugin.DgsDataFetcher
 import com.netflix.dgs.plugin.MyBundle
-import com.netflix.dgs.plugin.services.DgsService
+import com.netflix.dgs.plugin.services.DgsMetrics
 import org.jetbrains.kotlin.psi.KtAnnotationEntry
 import org.jetbrains.kotlin.psi.KtPsiFactory
 import org.jetbrains.uast.UMethod
@@ -35,13 +35,13 @@ import org.jetbrains.uast.visitor.AbstractUastNonRecursiveVisitor
 
 class DgsFieldSimplifyingInspector : AbstractBaseUastLocalInspectionTool() {
     override fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean): PsiElementVisitor {
-        return UastVisitorAdapter(object : AbstractUastNonRecursiveVisitor() {
-            override fun visitMethod(node: UMethod): Boolean {
-                val dgsService = node.project.getService(DgsService::class.java)
-                if(!dgsService.isDgsProject(node.project)) {
-                    return false
-                }
+        // only files that declare data fetchers can have something to simplify
+        if (DgsFileAnalysis.getInstance(holder.file).isEmpty()) {
+            return PsiElementVisitor.EMPTY_VISITOR
+        }
 
+        return DgsMetrics.getInstance(holder.project).timedVisitor("inspection.$shortName", UastVisitorAdapter(object : AbstractUastNonRecursiveVisitor() {
+            override fun visitMethod(node: UMethod): Boolean {
                 val psiAnnotation = node.annotations.find { DgsDataFetcher.isDataFetcherAnnotation(it) }
                 if (psiAnnotation != null) {
                     val fieldAttribute = psiAnnotation.findAttribute("field")
@@ -63,7 +63,7 @@ class DgsFieldSimplifyingInspector : AbstractBaseUastLocalInspectionTool() {
 
                 return true
             }
-        }, false)
+        }, false))
     }
 
     class DgsFieldNameQuickFix : LocalQuickFix {
@@ -89,7 +89,6 @@ class DgsFieldSimplifyingInspector : AbstractBaseUastLocalInspectionTool() {
             }
 
             descriptor.psiElement.replace(newAnnotation)
-            project.getService(DgsService::class.java).clearCache()
         }
 
         private fun replaceField(annotationText: String): String {
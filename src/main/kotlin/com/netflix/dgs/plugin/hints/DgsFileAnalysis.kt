@@ -0,0 +1,130 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin.hints
+
+import com.intellij.lang.jsgraphql.psi.GraphQLFieldDefinition
+import com.intellij.lang.jsgraphql.psi.GraphQLInputValueDefinition
+import com.intellij.lang.jsgraphql.psi.impl.GraphQLIdentifierImpl
+import com.intellij.lang.jsgraphql.schema.GraphQLSchemaProvider
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiJavaFile
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiModificationTracker
+import com.netflix.dgs.plugin.DgsDataFetcher
+import com.netflix.dgs.plugin.DgsEntityFetcher
+import com.netflix.dgs.plugin.InputArgumentUtils
+import com.netflix.dgs.plugin.services.DgsService
+import com.netflix.dgs.plugin.services.DgsTypeMappingService
+import java.util.IdentityHashMap
+
+/**
+ * The data fetchers and entity fetchers declared in a file, with the data fetchers matched with their schema fields
+ * and the input arguments those fields declare. The analysis is cached on the file until the next PSI change, component
+ * index update or type mapping change, so inspections and line markers share a single pass over the file instead of
+ * each resolving the schema or searching the index for every annotation.
+ */
+class DgsFileAnalysis private constructor(
+    private val dataFetchers: Map<PsiElement, DgsDataFetcherAnalysis>,
+    private val entityFetchers: Map<PsiElement, DgsEntityFetcher>,
+) {
+
+    fun isEmpty() = dataFetchers.isEmpty() && entityFetchers.isEmpty()
+
+    /**
+     * Returns the analysis of the data fetcher declared by the given annotation, e.g. a `PsiAnnotation` or a
+     * `KtAnnotationEntry`.
+     */
+    fun forAnnotation(annotation: PsiElement?): DgsDataFetcherAnalysis? = annotation?.let { dataFetchers[it] }
+
+    fun entityFetcherForAnnotation(annotation: PsiElement?): DgsEntityFetcher? = annotation?.let { entityFetchers[it] }
+
+    companion object {
+        private val EMPTY = DgsFileAnalysis(emptyMap(), emptyMap())
+
+        @JvmStatic
+        fun getInstance(file: PsiFile): DgsFileAnalysis {
+            val dgsService = file.project.getService(DgsService::class.java)
+            if (!dgsService.isDgsElement(file)) {
+                return EMPTY
+            }
+
+            return CachedValuesManager.getCachedValue(file) {
+                CachedValueProvider.Result.create(
+                    analyze(file, dgsService),
+                    PsiModificationTracker.MODIFICATION_COUNT,
+                    dgsService.indexModificationTracker,
+                    DgsTypeMappingService.getInstance(file.project).modificationTracker
+                )
+            }
+        }
+
+        private fun analyze(file: PsiFile, dgsService: DgsService): DgsFileAnalysis {
+            val virtualFile = file.virtualFile ?: return EMPTY
+            val index = dgsService.dgsComponentIndex
+            val dataFetchers = index.findDataFetchersInFile(virtualFile)
+            val entityFetchers = index.findEntityFetchersInFile(virtualFile)
+            if (dataFetchers.isEmpty() && entityFetchers.isEmpty()) {
+                return EMPTY
+            }
+
+            val isJavaFile = file is PsiJavaFile
+            val registry by lazy(LazyThreadSafetyMode.NONE) { GraphQLSchemaProvider.getInstance(file.project).getSchemaInfo(file).registry }
+            // Lookups come with the annotation PSI of the file, so the maps are keyed by identity
+            val result = IdentityHashMap<PsiElement, DgsDataFetcherAnalysis>()
+            for (dataFetcher in dataFetchers) {
+                val annotation = dataFetcher.psiAnnotation ?: continue
+                val schemaField = dataFetcher.schemaPsi as? GraphQLFieldDefinition
+                val arguments = schemaField?.argumentsDefinition?.inputValueDefinitionList.orEmpty().map { definition ->
+                    DgsArgumentAnalysis(
+                        definition,
+                        (definition.nameIdentifier as GraphQLIdentifierImpl).name,
+                        InputArgumentUtils.getHintForInputArgument(definition, registry, isJavaFile, file),
+                        InputArgumentUtils.getType(definition.type!!, isJavaFile, file),
+                        InputArgumentUtils.isCustomScalarType(definition.type!!, registry, file),
+                    )
+                }
+                result[annotation] = DgsDataFetcherAnalysis(dataFetcher, schemaField, arguments, isJavaFile)
+            }
+            val entityFetchersByAnnotation = IdentityHashMap<PsiElement, DgsEntityFetcher>()
+            entityFetchers.forEach { entityFetcher -> entityFetcher.psiAnnotation?.let { entityFetchersByAnnotation[it] = entityFetcher } }
+            return DgsFileAnalysis(result, entityFetchersByAnnotation)
+        }
+    }
+}
+
+/**
+ * A data fetcher with the schema field it implements, if the field exists in the schema.
+ */
+class DgsDataFetcherAnalysis(
+    val dataFetcher: DgsDataFetcher,
+    val schemaField: GraphQLFieldDefinition?,
+    val arguments: List<DgsArgumentAnalysis>,
+    val isJavaFile: Boolean,
+)
+
+/**
+ * An argument of a schema field with the `@InputArgument` parameter suggested for it.
+ */
+class DgsArgumentAnalysis(
+    val definition: GraphQLInputValueDefinition,
+    val name: String?,
+    val hint: String,
+    val expectedType: String,
+    val isCustomScalar: Boolean,
+)
@@ -17,15 +17,13 @@
 package com.netflix.dgs.plugin.hints
 
 import com.intellij.codeInspection.*
-import com.intellij.lang.jsgraphql.psi.impl.GraphQLFieldDefinitionImpl
-import com.intellij.lang.jsgraphql.schema.GraphQLSchemaProvider
 import com.intellij.openapi.project.Project
 import com.intellij.psi.*
 import com.intellij.psi.util.parentOfType
 import com.intellij.uast.UastVisitorAdapter
 import com.netflix.dgs.plugin.InputArgumentUtils
 import com.netflix.dgs.plugin.MyBundle
-import com.netflix.dgs.plugin.services.DgsService
+import com.netflix.dgs.plugin.services.DgsMetrics
 import org.jetbrains.kotlin.psi.KtFile
 import org.jetbrains.kotlin.psi.KtFunction
 import org.jetbrains.kotlin.psi.KtPsiFactory
@@ -36,54 +34,48 @@ import org.jetbrains.uast.visitor.AbstractUastNonRecursiveVisitor
 @Suppress("UElementAsPsi")
 class DgsInputArgumentInspector : AbstractBaseUastLocalInspectionTool() {
     override fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean): PsiElementVisitor {
+        val fileAnalysis = DgsFileAnalysis.getInstance(holder.file)
+        if (fileAnalysis.isEmpty()) {
+            return PsiElementVisitor.EMPTY_VISITOR
+        }
 
-        return UastVisitorAdapter(object : AbstractUastNonRecursiveVisitor() {
+        return DgsMetrics.getInstance(holder.project).timedVisitor("inspection.$shortName", UastVisitorAdapter(object : AbstractUastNonRecursiveVisitor() {
 
             override fun visitMethod(node: UMethod): Boolean {
 
                 if (InputArgumentUtils.hasDgsAnnotation(node) ) {
-                        val dgsDataAnnotation = InputArgumentUtils.getDgsAnnotation(node)
-                        val dgsService = dgsDataAnnotation.project.getService(DgsService::class.java)
-                        val typeDefinitionRegistry = GraphQLSchemaProvider.getInstance(dgsDataAnnotation.project).getSchemaInfo(node.javaPsi).registry
+                    val dgsDataAnnotation = InputArgumentUtils.getDgsAnnotation(node)
+                    val analysis = fileAnalysis.forAnnotation(dgsDataAnnotation.toUElement()?.sourcePsi)
+                    if (analysis?.schemaField != null) {
+                        val arguments = analysis.arguments
+                        if (arguments.isNotEmpty() && !node.uastParameters.any { it.hasAnnotation(InputArgumentUtils.DGS_INPUT_ARGUMENT_ANNOTATION) }) {
+                            val inputArgumentsHint: String = arguments[0].hint
+                            // do not add a hint for custom scalar types
+                            val inputArgumentsList = arguments.filter { !it.isCustomScalar }.map { it.hint }
 
-                    val dgsDataFetcher = dgsService.dgsComponentIndex.dataFetchers.find { it.psiAnnotation.toUElement() == dgsDataAnnotation.toUElement() }
-                        if (dgsDataFetcher?.schemaPsi != null) {
-                            val isJavaFile = dgsDataFetcher.psiFile is PsiJavaFile
-                            val arguments = (dgsDataFetcher.schemaPsi as? GraphQLFieldDefinitionImpl)?.argumentsDefinition?.inputValueDefinitionList
-                            if (arguments != null && arguments.size > 0 && !node.uastParameters.any { it.hasAnnotation(InputArgumentUtils.DGS_INPUT_ARGUMENT_ANNOTATION) }) {
-                                val inputArgumentsHint: String = InputArgumentUtils.getHintForInputArgument(arguments[0], typeDefinitionRegistry,  isJavaFile)
-                                val inputArgumentsList = mutableListOf<String>()
-                                arguments.forEach {
-                                    // do not add a hint for custom scalar types
-                                    if (! InputArgumentUtils.isCustomScalarType(it.type!!, typeDefinitionRegistry)) {
-                                        val parameter = InputArgumentUtils.getHintForInputArgument(it, typeDefinitionRegistry, isJavaFile)
-                                        inputArgumentsList.add(parameter)
-                                    }
-                                }
-
-                                val message = MyBundle.getMessage(
-                                    "dgs.inspection.dgsinputargument.hint",
-                                    inputArgumentsHint
-                                )
-                                when(val element = node.toUElement()){
-                                    is UMethod -> {
-                                        val pointer = SmartPointerManager.createPointer(element)
-                                        node.identifyingElement?.let {
-                                            holder.registerProblem(
-                                                it.navigationElement,
-                                                message,
-                                                ProblemHighlightType.WEAK_WARNING,
-                                                DgsInputArgumentQuickFix(pointer, inputArgumentsList, message)
-                                            )
-                                        }
+                            val message = MyBundle.getMessage(
+                                "dgs.inspection.dgsinputargument.hint",
+                                inputArgumentsHint
+                            )
+                            when(val element = node.toUElement()){
+                                is UMethod -> {
+                                    val pointer = SmartPointerManager.createPointer(element)
+                                    node.identifyingElement?.let {
+                                        holder.registerProblem(
+                                            it.navigationElement,
+                                            message,
+                                            ProblemHighlightType.WEAK_WARNING,
+                                            DgsInputArgumentQuickFix(pointer, inputArgumentsList, message)
+                                        )
                                     }
                                 }
                             }
                         }
                     }
+                }
                 return super.visitMethod(node)
             }
-        }, false)
+        }, false))
     }
 
 
@@ -109,14 +101,12 @@ class DgsInputArgumentInspector : AbstractBaseUastLocalInspectionTool() {
                     val param = factory.createParameterFromText(it, method)
                     method.parameterList.add(param)
                 }
-                project.getService(DgsService::class.java).clearCache()
             } else if(file is KtFile) {
                 val psiFactory = KtPsiFactory(project)
                 newInputArguments.forEach {
                     val param = psiFactory.createParameter(it)
                         (method.sourcePsi as KtFunction).valueParameterList?.addParameter(param)
                 }
-                project.getService(DgsService::class.java).clearCache()
             }
         }
     }
@@ -17,10 +17,6 @@
 package com.netflix.dgs.plugin.hints
 
 import com.intellij.codeInspection.*
-import com.intellij.lang.jsgraphql.psi.GraphQLInputValueDefinition
-import com.intellij.lang.jsgraphql.psi.impl.GraphQLFieldDefinitionImpl
-import com.intellij.lang.jsgraphql.psi.impl.GraphQLIdentifierImpl
-import com.intellij.lang.jsgraphql.schema.GraphQLSchemaProvider
 import com.intellij.lang.jvm.annotation.JvmAnnotationConstantValue
 import com.intellij.openapi.project.Project
 import com.intellij.psi.*
@@ -28,7 +24,7 @@ import com.intellij.psi.util.parentOfType
 import com.intellij.uast.UastVisitorAdapter
 import com.netflix.dgs.plugin.InputArgumentUtils
 import com.netflix.dgs.plugin.MyBundle
-import com.netflix.dgs.plugin.services.DgsService
+import com.netflix.dgs.plugin.services.DgsMetrics
 import org.jetbrains.kotlin.psi.KtFile
 import org.jetbrains.kotlin.psi.KtPsiFactory
 import org.jetbrains.uast.UMethod
@@ -40,54 +36,41 @@ import org.jetbrains.uast.visitor.AbstractUastNonRecursiveVisitor
 class DgsInputArgumentValidationInspector : AbstractBaseUastLocalInspectionTool() {
 
     override fun buildVisitor(holder: ProblemsHolder, isOnTheFly: Boolean): PsiElementVisitor {
-        return UastVisitorAdapter(object : AbstractUastNonRecursiveVisitor() {
+        val fileAnalysis = DgsFileAnalysis.getInstance(holder.file)
+        if (fileAnalysis.isEmpty()) {
+            return PsiElementVisitor.EMPTY_VISITOR
+        }
+
+        return DgsMetrics.getInstance(holder.project).timedVisitor("inspection.$shortName", UastVisitorAdapter(object : AbstractUastNonRecursiveVisitor() {
             override fun visitMethod(node: UMethod): Boolean {
 
                 if (InputArgumentUtils.hasDgsAnnotation(node) ) {
                     val dgsDataAnnotation = InputArgumentUtils.getDgsAnnotation(node)
-                    val dgsService = dgsDataAnnotation.project.getService(DgsService::class.java)
-                    val typeDefinitionRegistry = GraphQLSchemaProvider.getInstance(dgsDataAnnotation.project).getSchemaInfo(node.javaPsi).registry
-
-                    val dgsDataFetcher = dgsService.dgsComponentIndex.dataFetchers.find { it.psiAnnotation.toUElement() == dgsDataAnnotation.toUElement() }
-                    if (dgsDataFetcher?.schemaPsi != null) {
-                        val isJavaFile = dgsDataFetcher.psiFile is PsiJavaFile
-                        val arguments = (dgsDataFetcher.schemaPsi as? GraphQLFieldDefinitionImpl)?.argumentsDefinition?.inputValueDefinitionList
-                        if (!arguments.isNullOrEmpty()) {
+                    val analysis = fileAnalysis.forAnnotation(dgsDataAnnotation.toUElement()?.sourcePsi)
+                    if (analysis?.schemaField != null) {
+                        val arguments = analysis.arguments
+                        if (arguments.isNotEmpty()) {
 
                             // validate each argument specified in the schema against the data fetcher's input arguments
-                            node.uastParameters.stream().filter { it.hasAnnotation(InputArgumentUtils.DGS_INPUT_ARGUMENT_ANNOTATION) }.toList().forEach { inputArgument ->
+                            node.uastParameters.filter { it.hasAnnotation(InputArgumentUtils.DGS_INPUT_ARGUMENT_ANNOTATION) }.forEach { inputArgument ->
                                 val inputArgName = getInputArgumentName(inputArgument)
-                                val schemaSearchResult = arguments.stream().filter { graphQLInputValueDefinition ->
-                                    inputArgName == (graphQLInputValueDefinition.nameIdentifier as GraphQLIdentifierImpl).name }.toList()
-
-                                // if the list is empty, there is no corresponding input argument with the same name defined in the schema
-                                if (schemaSearchResult.isEmpty()) {
-                                    var validArgumentNames = ""
-                                    // construct a list of valid argument names for the hint and fix
-                                    arguments.forEach {
-                                        validArgumentNames = validArgumentNames.plus((it.nameIdentifier as GraphQLIdentifierImpl).name).plus(", ")
-                                    }
-                                    validArgumentNames = validArgumentNames.removeSuffix(", ")
+                                val argument = arguments.find { inputArgName == it.name }
 
+                                // if there is no argument with the same name defined in the schema, list the valid names
+                                if (argument == null) {
                                     val message = MyBundle.getMessage(
                                             "dgs.inspection.dgsinputargumentnamevalidation.hint",
                                             inputArgName,
-                                            validArgumentNames
+                                            arguments.joinToString(", ") { it.name.orEmpty() }
                                     )
                                     registerProblemWithArgumentName(holder, node, inputArgument, message)
-                                } else {
-                                    // validate the type of the input argument
-                                    val graphQLInputValueDefinition = schemaSearchResult[0]
-                                        val fixedInputArgument = InputArgumentUtils.getHintForInputArgument(graphQLInputValueDefinition!!, typeDefinitionRegistry, isJavaFile)
-                                        // enable hinting only if the argument is not a custom scalar or if it does not have the expected type
-                                        if (!InputArgumentUtils.isCustomScalarType(graphQLInputValueDefinition.type!!, typeDefinitionRegistry)
-                                                && !hasExpectedAnnotation(graphQLInputValueDefinition, inputArgument, isJavaFile)) {
-                                            val message = MyBundle.getMessage(
-                                                    "dgs.inspection.dgsinputargumentvalidation.hint",
-                                                    fixedInputArgument
-                                            )
-                                            registerProblemWithArgumentType(holder, node, inputArgument, message, fixedInputArgument)
-                                        }
+                                } else if (!argument.isCustomScalar && !hasExpectedAnnotation(argument, inputArgument)) {
+                                    // validate the type of the input argument, unless it is a custom scalar
+                                    val message = MyBundle.getMessage(
+                                            "dgs.inspection.dgsinputargumentvalidation.hint",
+                                            argument.hint
+                                    )
+                                    registerProblemWithArgumentType(holder, node, inputArgument, message, argument.hint)
                                 }
                             }
                         }
@@ -95,7 +78,7 @@ class DgsInputArgumentValidationInspector : AbstractBaseUastLocalInspectionTool(
                 }
                 return super.visitMethod(node)
             }
-        }, false)
+        }, false))
     }
 
     private fun getInputArgumentName(param: UParameter) : String {
@@ -109,13 +92,12 @@ class DgsInputArgumentValidationInspector : AbstractBaseUastLocalInspectionTool(
         return param.name
     }
 
-    private fun hasExpectedAnnotation(graphQLInput: GraphQLInputValueDefinition, inputArgument: UParameter, isJavaFile: Boolean) : Boolean {
+    private fun hasExpectedAnnotation(argument: DgsArgumentAnalysis, inputArgument: UParameter) : Boolean {
         val inputArgumentAnnotation = inputArgument.getAnnotation(InputArgumentUtils.DGS_INPUT_ARGUMENT_ANNOTATION)
         if (inputArgumentAnnotation != null) {
             // Parse the raw type from the input argument and verify match
             val inputArgumentType = inputArgument.type.presentableText + if (inputArgument.hasAnnotation("org.jetbrains.annotations.Nullable")) "?" else ""
-            val expectedType = InputArgumentUtils.getType(graphQLInput.type!!, isJavaFile)
-            return expectedType == inputArgumentType
+            return argument.expectedType == inputArgumentType
         }
 
         return false
@@ -170,12 +152,10 @@ class DgsInputArgumentValidationInspector : AbstractBaseUastLocalInspectionTool(
                 val factory: PsiElementFactory = JavaPsiFacade.getInstance(project).elementFactory
                     val param = factory.createParameterFromText(newInputArgument, method)
                     descriptor.psiElement.replace(param)
-                project.getService(DgsService::class.java).clearCache()
             } else if(file is KtFile) {
                 val psiFactory = KtPsiFactory(project)
                 val param = psiFactory.createParameter(newInputArgument)
                 descriptor.psiElement.replace(param)
-                project.getService(DgsService::class.java).clearCache()
             }
         }
     }
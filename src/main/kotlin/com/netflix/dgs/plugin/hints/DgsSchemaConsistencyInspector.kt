@@ -0,0 +1,166 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin.hints
+
+import com.intellij.analysis.AnalysisScope
+import com.intellij.codeInspection.*
+import com.intellij.lang.jsgraphql.schema.GraphQLSchemaProvider
+import com.intellij.lang.jsgraphql.schema.GraphQLTypeDefinitionUtil
+import com.intellij.lang.jsgraphql.types.language.SourceLocation
+import com.intellij.lang.jsgraphql.types.schema.idl.TypeDefinitionRegistry
+import com.intellij.openapi.application.runReadAction
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.project.Project
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiManager
+import com.netflix.dgs.plugin.DgsDataFetcher
+import com.netflix.dgs.plugin.DgsDirective
+import com.netflix.dgs.plugin.DgsScalar
+import com.netflix.dgs.plugin.MyBundle
+import com.netflix.dgs.plugin.NamedNavigationComponent
+import com.netflix.dgs.plugin.services.DgsComponentIndex
+import com.netflix.dgs.plugin.services.DgsService
+import com.netflix.dgs.plugin.services.internal.GraphQLSchemaRegistry
+import java.util.IdentityHashMap
+
+/**
+ * Checks the DGS components of the whole project against the schema in one pass over the component index, for batch
+ * inspection runs. It reports:
+ * - fields of the root operation types that no data fetcher implements
+ * - data fetchers for fields that don't exist in the schema
+ * - federated types without an entity fetcher
+ * - scalars and directives implemented with `@DgsScalar` and `@DgsDirective` but not declared in the schema
+ *
+ * Components are grouped by the schema visible from their file, so each schema is looked up once per file and each
+ * component is checked with hash lookups.
+ */
+class DgsSchemaConsistencyInspector : GlobalInspectionTool() {
+
+    override fun runInspection(
+        scope: AnalysisScope,
+        manager: InspectionManager,
+        globalContext: GlobalInspectionContext,
+        problemDescriptionsProcessor: ProblemDescriptionsProcessor
+    ) {
+        val project = globalContext.project
+        val dgsService = project.getService(DgsService::class.java)
+        if (!dgsService.isDgsProject(project)) {
+            return
+        }
+
+        runReadAction {
+            checkProject(project, dgsService.dgsComponentIndex) { element, message ->
+                val file = element.containingFile
+                if (file != null && scope.contains(file)) {
+                    val descriptor = manager.createProblemDescriptor(element, message, false, null, ProblemHighlightType.GENERIC_ERROR_OR_WARNING)
+                    globalContext.refManager.getReference(file)?.let { problemDescriptionsProcessor.addProblemElement(it, descriptor) }
+                }
+            }
+        }
+    }
+
+    override fun isGraphNeeded() = false
+
+    /**
+     * Groups all components by the schema registry of their file, looking the registry up once per file.
+     */
+    private fun componentsBySchema(project: Project, index: DgsComponentIndex): Map<TypeDefinitionRegistry, SchemaComponents> {
+        val psiManager = PsiManager.getInstance(project)
+        val schemaProvider = GraphQLSchemaProvider.getInstance(project)
+        val result = IdentityHashMap<TypeDefinitionRegistry, SchemaComponents>()
+        index.getAllComponents().groupBy { it.virtualFile }.forEach { (virtualFile, components) ->
+            ProgressManager.checkCanceled()
+            val psiFile = virtualFile?.let { psiManager.findFile(it) } ?: return@forEach
+            val registry = schemaProvider.getSchemaInfo(psiFile).registry
+            result.getOrPut(registry) { SchemaComponents(psiFile) }.components.addAll(components)
+        }
+        return result
+    }
+
+    private fun checkSchema(registry: TypeDefinitionRegistry, schemaComponents: SchemaComponents, index: DgsComponentIndex, reporter: Reporter) {
+        val context = schemaComponents.context
+        val schemaTable = context.project.getService(GraphQLSchemaRegistry::class.java).getSchemaTable(context)
+
+        schemaComponents.components.forEach { component ->
+            ProgressManager.checkCanceled()
+            when (component) {
+                is DgsDataFetcher -> if (!schemaTable.hasField(component.parentType, component.field)) {
+                    reporter.report(component, MyBundle.getMessage("dgs.inspection.schema.fetcher.without.field", component.parentType, component.field))
+                }
+                is DgsScalar -> if (!registry.scalars().containsKey(component.name) && !registry.scalarTypeExtensions().containsKey(component.name)) {
+                    reporter.report(component, MyBundle.getMessage("dgs.inspection.schema.scalar.missing", component.name))
+                }
+                is DgsDirective -> if (registry.getDirectiveDefinition(component.name).isEmpty) {
+                    reporter.report(component, MyBundle.getMessage("dgs.inspection.schema.directive.missing", component.name))
+                }
+            }
+        }
+
+        ROOT_TYPES.forEach { rootType ->
+            schemaTable.getObjectFields(rootType).forEach { (field, definition) ->
+                ProgressManager.checkCanceled()
+                if (index.findDataFetchers(rootType, field).isEmpty()) {
+                    reporter.report(definition.sourceLocation, MyBundle.getMessage("dgs.inspection.schema.field.without.fetcher", rootType, field))
+                }
+            }
+        }
+
+        FederatedEntityTable.getInstance(context, registry).all.forEach { entity ->
+            ProgressManager.checkCanceled()
+            if (entity.resolvable && !entity.hasEntityFetcher) {
+                reporter.report(
+                    schemaTable.getObjectType(entity.typeName)?.sourceLocation,
+                    MyBundle.getMessage("dgs.inspection.missing.entityfetcher.annotation")
+                )
+            }
+        }
+    }
+
+    private class SchemaComponents(val context: PsiElement) {
+        val components = mutableListOf<NamedNavigationComponent>()
+    }
+
+    /**
+     * Passes problems on to a sink. Schema elements are only resolved to PSI for problems.
+     */
+    private class Reporter(private val project: Project, private val sink: (PsiElement, String) -> Unit) {
+        fun report(component: NamedNavigationComponent, message: String) {
+            component.psiAnnotation?.let { sink(it, message) }
+        }
+
+        fun report(sourceLocation: SourceLocation?, message: String) {
+            sourceLocation?.let { GraphQLTypeDefinitionUtil.findElement(it, project) }?.let { sink(it, message) }
+        }
+    }
+
+    companion object {
+        private val ROOT_TYPES = listOf("Query", "Mutation", "Subscription")
+
+        /**
+         * Checks all components of the index against their schemas and passes each problem to the sink. Must be called
+         * in a read action.
+         */
+        @JvmStatic
+        fun checkProject(project: Project, index: DgsComponentIndex, sink: (PsiElement, String) -> Unit) {
+            val inspector = DgsSchemaConsistencyInspector()
+            val reporter = Reporter(project, sink)
+            inspector.componentsBySchema(project, index).forEach { (registry, components) ->
+                inspector.checkSchema(registry, components, index, reporter)
+            }
+        }
+    }
+}
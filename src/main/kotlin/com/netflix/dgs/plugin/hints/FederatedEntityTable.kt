@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin.hints
+
+import com.intellij.lang.jsgraphql.GraphQLLanguage
+import com.intellij.lang.jsgraphql.schema.GraphQLSchemaProvider
+import com.intellij.lang.jsgraphql.types.language.BooleanValue
+import com.intellij.lang.jsgraphql.types.language.ObjectTypeDefinition
+import com.intellij.lang.jsgraphql.types.language.StringValue
+import com.intellij.lang.jsgraphql.types.schema.idl.TypeDefinitionRegistry
+import com.intellij.openapi.util.Key
+import com.intellij.psi.PsiElement
+import com.intellij.psi.util.CachedValue
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiModificationTracker
+import com.intellij.util.containers.CollectionFactory
+import com.netflix.dgs.plugin.DgsComponentType
+import com.netflix.dgs.plugin.services.DgsService
+
+/**
+ * A federated entity: an object type with at least one `@key` directive, over all of its definitions and extensions.
+ * An entity is [resolvable] when any of its keys is resolvable, keys default to `resolvable: true`.
+ */
+data class FederatedEntity(
+    val typeName: String,
+    val keyFieldSets: List<String>,
+    val resolvable: Boolean,
+    val hasEntityFetcher: Boolean,
+)
+
+/**
+ * The federated entities of a schema by type name, built once per schema and component index snapshot.
+ */
+class FederatedEntityTable private constructor(private val entities: Map<String, FederatedEntity>) {
+
+    operator fun get(typeName: String?): FederatedEntity? = typeName?.let { entities[it] }
+
+    val all: Collection<FederatedEntity>
+        get() = entities.values
+
+    companion object {
+        private val ENTITY_TABLES = Key.create<CachedValue<MutableMap<TypeDefinitionRegistry, FederatedEntityTable>>>("dgs.federated.entity.tables")
+
+        /**
+         * Returns the entity table of the schema visible from the given element.
+         */
+        @JvmStatic
+        fun getInstance(element: PsiElement): FederatedEntityTable =
+            getInstance(element, GraphQLSchemaProvider.getInstance(element.project).getSchemaInfo(element).registry)
+
+        /**
+         * Returns the entity table of a schema that the caller already looked up for the given element.
+         */
+        @JvmStatic
+        fun getInstance(element: PsiElement, registry: TypeDefinitionRegistry): FederatedEntityTable {
+            val project = element.project
+            val dgsService = project.getService(DgsService::class.java)
+            val tables = CachedValuesManager.getManager(project).getCachedValue(project, ENTITY_TABLES, {
+                CachedValueProvider.Result.create(
+                    CollectionFactory.createConcurrentWeakIdentityMap(),
+                    PsiModificationTracker.getInstance(project).forLanguage(GraphQLLanguage.INSTANCE),
+                    dgsService.indexModificationTracker
+                )
+            }, false)
+            return tables.computeIfAbsent(registry) {
+                build(it) { name -> dgsService.findComponentAnnotations(null, DgsComponentType.ENTITY_FETCHER, name).isNotEmpty() }
+            }
+        }
+
+        private fun build(registry: TypeDefinitionRegistry, hasEntityFetcher: (String) -> Boolean): FederatedEntityTable {
+            val definitions = HashMap<String, MutableList<ObjectTypeDefinition>>()
+            registry.getTypes(ObjectTypeDefinition::class.java).forEach { definitions.getOrPut(it.name) { mutableListOf() }.add(it) }
+            registry.objectTypeExtensions().forEach { (name, extensions) -> definitions.getOrPut(name) { mutableListOf() }.addAll(extensions) }
+
+            val entities = HashMap<String, FederatedEntity>()
+            definitions.forEach { (name, typeDefinitions) ->
+                val keys = typeDefinitions.flatMap { it.getDirectives("key") }
+                if (keys.isNotEmpty()) {
+                    entities[name] = FederatedEntity(
+                        name,
+                        keys.mapNotNull { (it.getArgument("fields")?.value as? StringValue)?.value },
+                        // the service resolves the entity through any key that isn't marked resolvable: false
+                        keys.any { (it.getArgument("resolvable")?.value as? BooleanValue)?.isValue != false },
+                        hasEntityFetcher(name),
+                    )
+                }
+            }
+            return FederatedEntityTable(entities)
+        }
+    }
+}
@@ -24,6 +24,8 @@ import com.intellij.psi.util.PsiTreeUtil
 import com.netflix.dgs.plugin.DgsConstants
 import com.netflix.dgs.plugin.DgsDataFetcher
 import com.netflix.dgs.plugin.DgsEntityFetcher
+import com.netflix.dgs.plugin.hints.DgsFileAnalysis
+import com.netflix.dgs.plugin.services.DgsMetrics
 import com.netflix.dgs.plugin.services.DgsService
 import org.jetbrains.uast.UAnnotation
 import org.jetbrains.uast.toUElement
@@ -34,34 +36,36 @@ class DataFetcherToSchemaMarkerProvider : RelatedItemLineMarkerProvider() {
         result: MutableCollection<in RelatedItemLineMarkerInfo<*>>
     ) {
         val dgsService = element.project.getService(DgsService::class.java)
-        if(!dgsService.isDgsProject(element.project)) {
+        if(!dgsService.isDgsElement(element)) {
             return
         }
 
-        val uElement = element.toUElement()
+        DgsMetrics.getInstance(element.project).time("markers.dataFetcherToSchema") {
+            val uElement = element.toUElement()
 
-        if (uElement is UAnnotation) {
+            if (uElement is UAnnotation) {
 
-            if (DgsDataFetcher.isDataFetcherAnnotation(uElement) || DgsEntityFetcher.isEntityFetcherAnnotation(uElement)) {
+                if (DgsDataFetcher.isDataFetcherAnnotation(uElement) || DgsEntityFetcher.isEntityFetcherAnnotation(uElement)) {
 
-                val dgsDataFetcher = dgsService.dgsComponentIndex.dataFetchers.find { it.psiAnnotation == element }
-                val dgsEntityFetcher = dgsService.dgsComponentIndex.entityFetchers.find { it.psiAnnotation == element }
+                    val fileAnalysis = DgsFileAnalysis.getInstance(element.containingFile)
+                    val dgsDataFetcher = fileAnalysis.forAnnotation(element)?.dataFetcher
+                    val dgsEntityFetcher = fileAnalysis.entityFetcherForAnnotation(element)
 
-                if (dgsDataFetcher?.schemaPsi != null || dgsEntityFetcher?.schemaPsi != null) {
+                    if (dgsDataFetcher?.schemaPsi != null || dgsEntityFetcher?.schemaPsi != null) {
 
-                    val psiLeaf = PsiTreeUtil.getDeepestFirst(element)
-                    val target = dgsDataFetcher?.schemaPsi?: dgsEntityFetcher!!.schemaPsi
-                    val builder =
-                        NavigationGutterIconBuilder.create(DgsConstants.dgsIcon)
-                            .setTargets(target)
-                            .setTooltipText("Navigate to GraphQL schema type")
-                            .createLineMarkerInfo(psiLeaf)
+                        val psiLeaf = PsiTreeUtil.getDeepestFirst(element)
+                        val target = dgsDataFetcher?.schemaPsi?: dgsEntityFetcher!!.schemaPsi
+                        val builder =
+                            NavigationGutterIconBuilder.create(DgsConstants.dgsIcon)
+                                .setTargets(target)
+                                .setTooltipText("Navigate to GraphQL schema type")
+                                .createLineMarkerInfo(psiLeaf)
 
-                    result.add(builder)
+                        result.add(builder)
+                    }
                 }
-            }
 
+            }
         }
-
     }
 }
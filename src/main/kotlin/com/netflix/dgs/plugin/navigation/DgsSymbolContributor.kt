@@ -16,36 +16,57 @@
 
 package com.netflix.dgs.plugin.navigation
 
-import com.intellij.navigation.ChooseByNameContributor
+import com.intellij.navigation.ChooseByNameContributorEx
 import com.intellij.navigation.ItemPresentation
 import com.intellij.navigation.NavigationItem
 import com.intellij.openapi.fileEditor.FileEditorManager
 import com.intellij.openapi.fileEditor.OpenFileDescriptor
+import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.project.Project
 import com.intellij.psi.PsiClass
 import com.intellij.psi.PsiElement
+import com.intellij.psi.search.GlobalSearchScope
 import com.intellij.psi.util.parentOfType
+import com.intellij.util.Processor
+import com.intellij.util.indexing.FindSymbolParameters
+import com.intellij.util.indexing.IdFilter
 import com.netflix.dgs.plugin.DgsConstants
 import com.netflix.dgs.plugin.services.DgsService
 import javax.swing.Icon
 
-class DgsSymbolContributor : ChooseByNameContributor {
-    override fun getNames(project: Project, includeNonProjectItems: Boolean): Array<String> {
-        val dgsService = project.getService(DgsService::class.java)
-        return dgsService.dgsComponentIndex.getAllComponents().map { it.name }.toTypedArray()
+/**
+ * Contributes DGS components to Go to Symbol. Names and components come from lookups in the component index, so the
+ * cost of a search grows with the number of matches rather than with the number of components.
+ */
+class DgsSymbolContributor : ChooseByNameContributorEx {
+    override fun processNames(processor: Processor<in String>, scope: GlobalSearchScope, filter: IdFilter?) {
+        val project = scope.project ?: return
+        val index = project.getService(DgsService::class.java).dgsComponentIndex
+        for (name in index.componentNames) {
+            ProgressManager.checkCanceled()
+            val inScope = index.findComponentsByName(name).any { component -> component.virtualFile?.let { scope.contains(it) } == true }
+            if (inScope && !processor.process(name)) {
+                return
+            }
+        }
     }
 
-    override fun getItemsByName(
-        name: String,
-        pattern: String,
-        project: Project,
-        includeNonProjectItems: Boolean
-    ): Array<NavigationItem> {
+    override fun processElementsWithName(name: String, processor: Processor<in NavigationItem>, parameters: FindSymbolParameters) {
+        val project = parameters.project
+        val scope = parameters.searchScope
         val dgsService = project.getService(DgsService::class.java)
-        return dgsService.dgsComponentIndex.getAllComponents()
-            .filter { it.name == name }
-            .map { DgsComponentNavigationItem(it.name, project, it.psiAnnotation, it.psiAnnotation.parentOfType<PsiClass>()?.qualifiedName, it.type.description) }
-            .toTypedArray()
+        for (component in dgsService.dgsComponentIndex.findComponentsByName(name)) {
+            ProgressManager.checkCanceled()
+            val virtualFile = component.virtualFile ?: continue
+            if (!scope.contains(virtualFile)) {
+                continue
+            }
+            val annotation = component.psiAnnotation ?: continue
+            val item = DgsComponentNavigationItem(component.name, project, annotation, annotation.parentOfType<PsiClass>()?.qualifiedName, component.type.description)
+            if (!processor.process(item)) {
+                return
+            }
+        }
     }
 }
 
@@ -16,63 +16,93 @@
 
 package com.netflix.dgs.plugin.navigation
 
+import com.intellij.codeInsight.daemon.LineMarkerInfo
 import com.intellij.codeInsight.daemon.RelatedItemLineMarkerInfo
 import com.intellij.codeInsight.daemon.RelatedItemLineMarkerProvider
 import com.intellij.codeInsight.navigation.NavigationGutterIconBuilder
 import com.intellij.lang.jsgraphql.psi.*
+import com.intellij.openapi.module.ModuleUtilCore
 import com.intellij.psi.PsiElement
 import com.intellij.psi.util.PsiTreeUtil
+import com.netflix.dgs.plugin.DgsComponentType
 import com.netflix.dgs.plugin.DgsConstants
+import com.netflix.dgs.plugin.services.DgsMetrics
 import com.netflix.dgs.plugin.services.DgsService
 
 class SchemaToDataFetcherMarkerProvider : RelatedItemLineMarkerProvider() {
+    override fun collectSlowLineMarkers(
+        elements: MutableList<out PsiElement>,
+        result: MutableCollection<in LineMarkerInfo<*>>
+    ) {
+        // all elements of a pass belong to the same file, so the DGS check is done once instead of per element
+        val file = elements.firstOrNull()?.containingFile ?: return
+        if (!file.project.getService(DgsService::class.java).isDgsSchemaFile(file)) {
+            return
+        }
+        super.collectSlowLineMarkers(elements, result)
+    }
+
     override fun collectNavigationMarkers(
         element: PsiElement,
         result: MutableCollection<in RelatedItemLineMarkerInfo<*>>
     ) {
         val dgsService = element.project.getService(DgsService::class.java)
-        if(!dgsService.isDgsProject(element.project)) {
-            return
-        }
-        val psiLeaf = PsiTreeUtil.getDeepestFirst(element)
 
-        val iconBuilder = when (element) {
-            is GraphQLFieldDefinition -> {
-                dgsService.dgsComponentIndex.dataFetchers.find { it.schemaPsi == element }?.let {
-                        NavigationGutterIconBuilder.create(DgsConstants.dgsIcon)
-                            .setTargets(it.psiAnnotation)
-                            .setTooltipText("Navigate to DGS data fetcher")
-                            .createLineMarkerInfo(psiLeaf)
-                }
+        DgsMetrics.getInstance(element.project).time("markers.schemaToDataFetcher") {
+            val psiLeaf = PsiTreeUtil.getDeepestFirst(element)
+            // only components that can serve this schema, i.e. in its module or in modules depending on it
+            val schemaModule by lazy(LazyThreadSafetyMode.NONE) { ModuleUtilCore.findModuleForPsiElement(element) }
+            val findTargets = { type: DgsComponentType, key: String ->
+                dgsService.findComponentAnnotations(schemaModule, type, key).takeIf { it.isNotEmpty() }
             }
-            is GraphQLObjectTypeDefinition, is GraphQLObjectTypeExtensionDefinition -> {
-                dgsService.dgsComponentIndex.entityFetchers.find { it.schemaPsi == element }?.let {
-                        NavigationGutterIconBuilder.create(DgsConstants.dgsIcon)
-                            .setTargets(it.psiAnnotation)
-                            .setTooltipText("Navigate to DGS entity fetcher")
-                            .createLineMarkerInfo(psiLeaf)
+
+            val iconBuilder = when (element) {
+                is GraphQLFieldDefinition -> {
+                    val parentType = typeName(PsiTreeUtil.getParentOfType(element, GraphQLTypeNameDefinitionOwner::class.java, GraphQLTypeNameExtensionOwner::class.java))
+                    element.name?.let { field -> parentType?.let { findTargets(DgsComponentType.DATA_FETCHER, "$it.$field") } }?.let {
+                            NavigationGutterIconBuilder.create(DgsConstants.dgsIcon)
+                                .setTargets(it)
+                                .setTooltipText("Navigate to DGS data fetcher")
+                                .createLineMarkerInfo(psiLeaf)
+                    }
                 }
-            }
-            is GraphQLScalarTypeDefinition -> {
-                dgsService.dgsComponentIndex.scalars.find { it.schemaPsi == element }?.let {
-                        NavigationGutterIconBuilder.create(DgsConstants.dgsIcon)
-                            .setTargets(it.psiAnnotation)
-                            .setTooltipText("Navigate to DGS scalar implementation")
-                            .createLineMarkerInfo(psiLeaf)
+                is GraphQLObjectTypeDefinition, is GraphQLObjectTypeExtensionDefinition -> {
+                    typeName(element)?.let { findTargets(DgsComponentType.ENTITY_FETCHER, it) }?.let {
+                            NavigationGutterIconBuilder.create(DgsConstants.dgsIcon)
+                                .setTargets(it)
+                                .setTooltipText("Navigate to DGS entity fetcher")
+                                .createLineMarkerInfo(psiLeaf)
+                    }
                 }
-            }
-            is GraphQLDirectiveDefinition -> {
-                dgsService.dgsComponentIndex.directives.find { it.schemaPsi == element }?.let {
-                        NavigationGutterIconBuilder.create(DgsConstants.dgsIcon)
-                            .setTargets(it.psiAnnotation)
-                            .setTooltipText("Navigate to DGS directive implementation")
-                            .createLineMarkerInfo(psiLeaf)
+                is GraphQLScalarTypeDefinition -> {
+                    typeName(element)?.let { findTargets(DgsComponentType.SCALAR, it) }?.let {
+                            NavigationGutterIconBuilder.create(DgsConstants.dgsIcon)
+                                .setTargets(it)
+                                .setTooltipText("Navigate to DGS scalar implementation")
+                                .createLineMarkerInfo(psiLeaf)
+                    }
                 }
+                is GraphQLDirectiveDefinition -> {
+                    element.nameIdentifier?.text?.let { findTargets(DgsComponentType.DIRECTIVE, it) }?.let {
+                            NavigationGutterIconBuilder.create(DgsConstants.dgsIcon)
+                                .setTargets(it)
+                                .setTooltipText("Navigate to DGS directive implementation")
+                                .createLineMarkerInfo(psiLeaf)
+                    }
+                }
+                else -> null
             }
-            else -> null
+
+            iconBuilder?.apply { result.add(this) }
         }
+    }
 
-        iconBuilder?.apply { result.add(this) }
+    private fun typeName(element: PsiElement?): String? {
+        return when (element) {
+            is GraphQLTypeNameDefinitionOwner -> element.typeNameDefinition?.name
+            is GraphQLTypeNameExtensionOwner -> element.typeName?.name
+            else -> null
+        }
     }
 
 }
\ No newline at end of file
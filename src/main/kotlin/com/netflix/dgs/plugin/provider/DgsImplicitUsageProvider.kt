@@ -42,7 +42,7 @@ import org.jetbrains.uast.toUElement
 class DgsImplicitUsageProvider: ImplicitUsageProvider {
     override fun isImplicitUsage(element: PsiElement): Boolean {
         val dgsService = element.project.getService(DgsService::class.java)
-        if(!dgsService.isDgsProject(element.project)) {
+        if(!dgsService.isDgsElement(element)) {
             return false
         }
 
@@ -18,6 +18,7 @@ package com.netflix.dgs.plugin.provider
 
 import com.intellij.icons.AllIcons
 import com.intellij.ide.projectView.PresentationData
+import com.intellij.ide.projectView.ProjectView
 import com.intellij.ide.projectView.ProjectViewNode
 import com.intellij.ide.projectView.TreeStructureProvider
 import com.intellij.ide.projectView.ViewSettings
@@ -27,8 +28,11 @@ import com.intellij.openapi.fileEditor.OpenFileDescriptor
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.PsiElement
+import com.intellij.psi.SmartPsiElementPointer
 import com.intellij.ui.SimpleTextAttributes
+import com.netflix.dgs.plugin.DgsComponentType
 import com.netflix.dgs.plugin.DgsConstants
+import com.netflix.dgs.plugin.DgsDataFetcher
 import com.netflix.dgs.plugin.NamedNavigationComponent
 import com.netflix.dgs.plugin.services.DgsService
 import javax.swing.Icon
@@ -48,39 +52,49 @@ class DgsProjectStructureProvider : TreeStructureProvider {
 
         return children
     }
+
+    companion object {
+        internal const val ROOT_VALUE = "DGS"
+
+        internal val groupLabels = linkedMapOf(
+            DgsComponentType.DATA_FETCHER to "Data fetchers",
+            DgsComponentType.ENTITY_FETCHER to "Entity fetchers",
+            DgsComponentType.DATA_LOADER to "Data loaders",
+            DgsComponentType.DIRECTIVE to "Directives",
+            DgsComponentType.RUNTIME_WIRING to "Runtime wiring",
+            DgsComponentType.SCALAR to "Scalars",
+            DgsComponentType.CUSTOM_CONTEXT to "Custom context",
+        )
+
+        /**
+         * Updates only the DGS group nodes of the given component types, instead of refreshing the whole project view.
+         * The root node is updated as well, without its children, because it shows the total component count.
+         */
+        @JvmStatic
+        fun updateNodes(project: Project, changedTypes: Set<DgsComponentType>) {
+            val pane = ProjectView.getInstance(project).currentProjectViewPane ?: return
+            pane.updateFrom(ROOT_VALUE, false, false)
+            changedTypes.forEach { pane.updateFrom(groupLabels.getValue(it), false, true) }
+        }
+    }
 }
 
 class DgsComponentsRootNode(
     project: Project?,
     settings: ViewSettings?,
-) : ProjectViewNode<String>(project, "DGS", settings) {
+) : ProjectViewNode<String>(project, DgsProjectStructureProvider.ROOT_VALUE, settings) {
     override fun update(presentation: PresentationData) {
         presentation.apply {
             val text = "DGS Components"
-            val toolTip = children.mapNotNull { it.name }.joinToString(", ")
+            val count = project?.getService(DgsService::class.java)?.dgsComponentIndex?.size ?: 0
             val textAttributes = SimpleTextAttributes.REGULAR_ATTRIBUTES
-            addText(ColoredFragment(text, toolTip, textAttributes))
+            addText(ColoredFragment(text, componentCount(count), textAttributes))
             setIcon(DgsConstants.dgsIcon)
         }
     }
 
     override fun getChildren(): Collection<AbstractTreeNode<*>> {
-
-        val service = project?.getService(DgsService::class.java)
-        return if (service != null) {
-
-            listOf(
-                DgsNamedRootNode(project, settings, "Data fetchers", service.dgsComponentIndex.dataFetchers),
-                DgsNamedRootNode(project, settings, "Entity fetchers", service.dgsComponentIndex.entityFetchers),
-                DgsNamedRootNode(project, settings, "Data loaders", service.dgsComponentIndex.dataLoaders),
-                DgsNamedRootNode(project, settings, "Directives", service.dgsComponentIndex.directives),
-                DgsNamedRootNode(project, settings, "Runtime wiring", service.dgsComponentIndex.runtimeWirings),
-                DgsNamedRootNode(project, settings, "Scalars", service.dgsComponentIndex.scalars),
-                DgsNamedRootNode(project, settings, "Custom context", service.dgsComponentIndex.customContexts),
-            )
-        } else {
-            emptyList()
-        }
+        return DgsProjectStructureProvider.groupLabels.map { (type, label) -> DgsNamedRootNode(project, settings, label, type) }
     }
 
     override fun contains(file: VirtualFile): Boolean {
@@ -88,30 +102,40 @@ class DgsComponentsRootNode(
     }
 }
 
+/**
+ * Groups the components of one type. Children are only created when the node is expanded: per module when more than
+ * one module declares components of this type, and per parent type for data fetchers.
+ */
 class DgsNamedRootNode(
     project: Project?,
     settings: ViewSettings?,
     private val text: String,
-    private val components: Set<NamedNavigationComponent>,
-    private val elementIcon: Icon = AllIcons.Nodes.Method
+    private val type: DgsComponentType,
 ) : ProjectViewNode<String>(project, text, settings) {
     override fun update(presentation: PresentationData) {
         presentation.apply {
-            val toolTip = children.mapNotNull { it.name }.joinToString(", ")
+            val count = project?.getService(DgsService::class.java)?.dgsComponentIndex?.getComponents(type)?.size ?: 0
             val textAttributes = SimpleTextAttributes.REGULAR_ATTRIBUTES
-            addText(ColoredFragment(text, toolTip, textAttributes))
+            addText(ColoredFragment(text, componentCount(count), textAttributes))
             setIcon(DgsConstants.dgsIcon)
         }
     }
 
-    override fun getChildren(): MutableCollection<out AbstractTreeNode<*>> {
-        if (project != null) {
-            return components.map { component ->
-                DgsNode(project, settings, component.name, component.psiAnnotation, elementIcon)
-            }.toMutableList()
+    override fun getChildren(): Collection<AbstractTreeNode<*>> {
+        val service = project?.getService(DgsService::class.java) ?: return emptyList()
+        val componentsByModule = service.moduleComponentIndexes
+            .mapValues { (_, index) -> index.getComponents(type) }
+            .filterValues { it.isNotEmpty() }
+
+        if (componentsByModule.size > 1) {
+            return componentsByModule.entries.sortedBy { it.key.name }.map { (module, components) ->
+                DgsGroupNode(project, settings, "$text/${module.name}", module.name, AllIcons.Nodes.Module) {
+                    componentNodes(project, settings, type, "$text/${module.name}", components)
+                }
+            }
         }
 
-        return mutableListOf()
+        return componentNodes(project, settings, type, text, componentsByModule.values.firstOrNull().orEmpty())
     }
 
     override fun contains(file: VirtualFile): Boolean {
@@ -119,18 +143,76 @@ class DgsNamedRootNode(
     }
 }
 
+/**
+ * An intermediate node in the DGS Components tree, e.g. a module or a parent type, whose children are created on
+ * expansion.
+ */
+class DgsGroupNode(
+    project: Project?,
+    settings: ViewSettings?,
+    value: String,
+    private val text: String,
+    private val icon: Icon,
+    private val children: () -> Collection<AbstractTreeNode<*>>,
+) : ProjectViewNode<String>(project, value, settings) {
+    override fun update(presentation: PresentationData) {
+        presentation.apply {
+            val textAttributes = SimpleTextAttributes.REGULAR_ATTRIBUTES
+            addText(ColoredFragment(text, null, textAttributes))
+            setIcon(icon)
+        }
+    }
+
+    override fun getChildren(): Collection<AbstractTreeNode<*>> = children()
+
+    override fun contains(file: VirtualFile): Boolean {
+        return false
+    }
+}
+
+private fun componentNodes(
+    project: Project,
+    settings: ViewSettings?,
+    type: DgsComponentType,
+    path: String,
+    components: List<NamedNavigationComponent>,
+): Collection<AbstractTreeNode<*>> {
+    if (type == DgsComponentType.DATA_FETCHER) {
+        val byParentType = components.groupBy { (it as DgsDataFetcher).parentType }
+        if (byParentType.size > 1) {
+            return byParentType.entries.sortedBy { it.key }.map { (parentType, dataFetchers) ->
+                DgsGroupNode(project, settings, "$path/$parentType", "$parentType (${dataFetchers.size})", AllIcons.Nodes.Type) {
+                    leafNodes(project, settings, dataFetchers) { (it as DgsDataFetcher).field }
+                }
+            }
+        }
+    }
+
+    return leafNodes(project, settings, components)
+}
+
+private fun leafNodes(
+    project: Project,
+    settings: ViewSettings?,
+    components: List<NamedNavigationComponent>,
+    label: (NamedNavigationComponent) -> String = { it.name },
+): Collection<AbstractTreeNode<*>> {
+    return components.sortedBy { it.name }.map { DgsNode(project, settings, label(it), it.annotationPointer) }
+}
+
+private fun componentCount(count: Int) = if (count == 1) "1 component" else "$count components"
+
 class DgsNode(
     project: Project?,
     settings: ViewSettings?,
     private val text: String,
-    private val psiElement: PsiElement?,
+    private val annotationPointer: SmartPsiElementPointer<out PsiElement>?,
     private val theIcon: Icon = AllIcons.Nodes.Method
 ) : ProjectViewNode<String>(project, text, settings) {
     override fun update(presentation: PresentationData) {
         presentation.apply {
-            val toolTip = children.mapNotNull { it.name }.joinToString(", ")
             val textAttributes = SimpleTextAttributes.REGULAR_ATTRIBUTES
-            addText(ColoredFragment(text, toolTip, textAttributes))
+            addText(ColoredFragment(text, null, textAttributes))
             setIcon(theIcon)
         }
     }
@@ -144,6 +226,7 @@ class DgsNode(
     }
 
     override fun navigate(requestFocus: Boolean) {
+        val psiElement = annotationPointer?.element
         if (project != null && psiElement != null) {
 
             val fileEditorManager = FileEditorManager.getInstance(project!!)
@@ -159,7 +242,7 @@ class DgsNode(
     }
 
     override fun canNavigate(): Boolean {
-        return psiElement != null
+        return annotationPointer != null
     }
 
     override fun isAlwaysLeaf(): Boolean {
@@ -169,4 +252,4 @@ class DgsNode(
     override fun canNavigateToSource(): Boolean {
         return true
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin.services
+
+import com.intellij.ide.highlighter.JavaFileType
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.psi.*
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.util.indexing.*
+import com.intellij.util.io.DataExternalizer
+import com.intellij.util.io.DataInputOutputUtil
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.KeyDescriptor
+import com.netflix.dgs.plugin.DgsComponentType
+import org.jetbrains.kotlin.idea.KotlinFileType
+import org.jetbrains.kotlin.psi.*
+import org.jetbrains.uast.UAnnotation
+import org.jetbrains.uast.toUElement
+import java.io.DataInput
+import java.io.DataOutput
+
+/**
+ * A DGS component found in a file, stored in [DgsComponentFileIndex] under its lookup key.
+ * The offset points at the start of the annotation that declares the component.
+ */
+data class DgsComponentRecord(val type: DgsComponentType, val offset: Int)
+
+/**
+ * Persistent index of the DGS components declared in Java and Kotlin files, which answers keyed lookups before the
+ * first [DgsComponentIndex] is built, e.g. right after the IDE was restarted.
+ *
+ * Keys are the component names of [DgsComponentIndex]: `parentType.field` for data fetchers, the method name for
+ * runtime wirings and the declared name for entity fetchers, scalars, directives and data loaders. The indexer is
+ * purely syntactic, so components whose name depends on an attribute that isn't a string literal, e.g. a constant,
+ * are stored under [UNRESOLVED_KEY] and resolved when they are looked up. Custom contexts are not indexed, they are
+ * found by their super type.
+ */
+class DgsComponentFileIndex : FileBasedIndexExtension<String, List<DgsComponentRecord>>() {
+    override fun getName(): ID<String, List<DgsComponentRecord>> = NAME
+
+    override fun getIndexer(): DataIndexer<String, List<DgsComponentRecord>, FileContent> = DataIndexer { inputData ->
+        if (!StringUtil.contains(inputData.contentAsText, "@Dgs")) {
+            return@DataIndexer emptyMap()
+        }
+
+        val result = HashMap<String, MutableList<DgsComponentRecord>>()
+        inputData.psiFile.accept(object : PsiRecursiveElementWalkingVisitor() {
+            override fun visitElement(element: PsiElement) {
+                when (element) {
+                    is PsiAnnotation -> indexJavaAnnotation(element, result)
+                    is KtAnnotationEntry -> indexKotlinAnnotation(element, result)
+                }
+                super.visitElement(element)
+            }
+        })
+        result
+    }
+
+    override fun getKeyDescriptor(): KeyDescriptor<String> = EnumeratorStringDescriptor.INSTANCE
+
+    override fun getValueExternalizer(): DataExternalizer<List<DgsComponentRecord>> = RecordListExternalizer
+
+    override fun getVersion() = 2
+
+    override fun getInputFilter(): FileBasedIndex.InputFilter =
+        DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE, KotlinFileType.INSTANCE)
+
+    override fun dependsOnFileContent() = true
+
+    private fun indexJavaAnnotation(annotation: PsiAnnotation, result: MutableMap<String, MutableList<DgsComponentRecord>>) {
+        val shortName = annotation.nameReferenceElement?.referenceName ?: return
+        val owner = PsiTreeUtil.getParentOfType(annotation, PsiModifierListOwner::class.java) as? PsiNamedElement ?: return
+        val attribute = { name: String ->
+            when (val value = annotation.findDeclaredAttributeValue(name)) {
+                null -> null
+                else -> (value as? PsiLiteralExpression)?.value as? String ?: UNRESOLVED_KEY
+            }
+        }
+        addRecord(shortName, owner.name, attribute, annotation.textRange.startOffset, result)
+    }
+
+    private fun indexKotlinAnnotation(entry: KtAnnotationEntry, result: MutableMap<String, MutableList<DgsComponentRecord>>) {
+        val shortName = entry.shortName?.asString() ?: return
+        val owner = PsiTreeUtil.getParentOfType(entry, KtNamedDeclaration::class.java) ?: return
+        if (shortName == "List") {
+            // @DgsData.List(DgsData(...), DgsData(...)) nests call expressions rather than annotation entries in Kotlin
+            entry.valueArguments.mapNotNull { it.getArgumentExpression() as? KtCallExpression }
+                .filter { it.calleeExpression?.text == "DgsData" }
+                .forEach { call ->
+                    addRecord("DgsData", owner.name, { name -> kotlinStringArgument(call.valueArguments, name) }, call.textRange.startOffset, result)
+                }
+            return
+        }
+
+        addRecord(shortName, owner.name, { name -> kotlinStringArgument(entry.valueArguments, name) }, entry.textRange.startOffset, result)
+    }
+
+    /**
+     * Adds a record under the name [DgsComponentIndex] gives the component. [attribute] returns `null` for attributes
+     * that aren't given, and [UNRESOLVED_KEY] for values the indexer can't evaluate.
+     */
+    private fun addRecord(
+        shortName: String,
+        ownerName: String?,
+        attribute: (String) -> String?,
+        offset: Int,
+        result: MutableMap<String, MutableList<DgsComponentRecord>>
+    ) {
+        val field = attribute("field") ?: ownerName
+        val (type, key) = when (shortName) {
+            "DgsQuery" -> DgsComponentType.DATA_FETCHER to field?.let { "Query.$it" }
+            "DgsMutation" -> DgsComponentType.DATA_FETCHER to field?.let { "Mutation.$it" }
+            "DgsSubscription" -> DgsComponentType.DATA_FETCHER to field?.let { "Subscription.$it" }
+            "DgsData" -> DgsComponentType.DATA_FETCHER to attribute("parentType")?.let { parentType -> field?.let { "$parentType.$it" } }
+            "DgsEntityFetcher" -> DgsComponentType.ENTITY_FETCHER to (attribute("name") ?: ownerName)
+            "DgsScalar" -> DgsComponentType.SCALAR to attribute("name")
+            "DgsDirective" -> DgsComponentType.DIRECTIVE to attribute("name")
+            "DgsDataLoader" -> DgsComponentType.DATA_LOADER to attribute("name")
+            "DgsRuntimeWiring" -> DgsComponentType.RUNTIME_WIRING to ownerName
+            else -> return
+        }
+
+        if (key != null) {
+            val indexKey = if (key.contains(UNRESOLVED_KEY)) UNRESOLVED_KEY else key
+            result.getOrPut(indexKey) { mutableListOf() }.add(DgsComponentRecord(type, offset))
+        }
+    }
+
+    private fun kotlinStringArgument(arguments: List<ValueArgument>, name: String): String? {
+        val argument = arguments.find { it.getArgumentName()?.asName?.asString() == name }
+        if (argument == null) {
+            // a positional argument may be the one we are looking for
+            return if (arguments.any { it.getArgumentName() == null }) UNRESOLVED_KEY else null
+        }
+        val template = argument.getArgumentExpression() as? KtStringTemplateExpression ?: return UNRESOLVED_KEY
+        if (template.hasInterpolation()) {
+            return UNRESOLVED_KEY
+        }
+        return template.entries.joinToString("") { it.text }
+    }
+
+    private object RecordListExternalizer : DataExternalizer<List<DgsComponentRecord>> {
+        override fun save(out: DataOutput, value: List<DgsComponentRecord>) {
+            DataInputOutputUtil.writeINT(out, value.size)
+            value.forEach {
+                DataInputOutputUtil.writeINT(out, it.type.ordinal)
+                DataInputOutputUtil.writeINT(out, it.offset)
+            }
+        }
+
+        override fun read(input: DataInput): List<DgsComponentRecord> {
+            val size = DataInputOutputUtil.readINT(input)
+            return List(size) {
+                DgsComponentRecord(DgsComponentType.entries[DataInputOutputUtil.readINT(input)], DataInputOutputUtil.readINT(input))
+            }
+        }
+    }
+
+    companion object {
+        @JvmField
+        val NAME: ID<String, List<DgsComponentRecord>> = ID.create("com.netflix.dgs.plugin.components")
+
+        /**
+         * Key of the components whose name couldn't be computed while indexing. No component name contains it.
+         */
+        const val UNRESOLVED_KEY = "?"
+
+        /**
+         * Looks up the annotations declaring a component of the given type and key, only touching the files that the
+         * index reports for that key and the files with unresolved components of that type.
+         */
+        @JvmStatic
+        fun findAnnotations(project: Project, type: DgsComponentType, key: String, scope: GlobalSearchScope): List<PsiElement> {
+            val psiManager = PsiManager.getInstance(project)
+            val result = LinkedHashSet<PsiElement>()
+            FileBasedIndex.getInstance().processValues(NAME, key, null, { file, records ->
+                val psiFile = psiManager.findFile(file)
+                if (psiFile != null) {
+                    records.filter { it.type == type }.forEach { record ->
+                        findAnnotation(psiFile, record)?.let { result.add(it) }
+                    }
+                }
+                true
+            }, scope)
+            FileBasedIndex.getInstance().processValues(NAME, UNRESOLVED_KEY, null, { file, records ->
+                val psiFile = psiManager.findFile(file)
+                if (psiFile != null) {
+                    records.filter { it.type == type }.forEach { record ->
+                        findAnnotation(psiFile, record)?.let { result.addAll(resolve(it, type, key)) }
+                    }
+                }
+                true
+            }, scope)
+            return result.toList()
+        }
+
+        private fun findAnnotation(psiFile: PsiFile, record: DgsComponentRecord): PsiElement? =
+            psiFile.findElementAt(record.offset)
+                ?.let { PsiTreeUtil.getNonStrictParentOfType(it, PsiAnnotation::class.java, KtAnnotationEntry::class.java) }
+
+        /**
+         * Evaluates an annotation the way [DgsComponentProcessor] does, and returns its components with the given key.
+         */
+        private fun resolve(annotation: PsiElement, type: DgsComponentType, key: String): List<PsiElement> {
+            val uAnnotation = annotation.toUElement() as? UAnnotation ?: return emptyList()
+            val indexBuilder = DgsComponentIndex.Builder()
+            DgsComponentProcessor(indexBuilder).process(uAnnotation)
+            return indexBuilder.build().getComponents(type).filter { it.name == key }.mapNotNull { it.psiAnnotation }
+        }
+    }
+}
@@ -16,19 +16,38 @@
 
 package com.netflix.dgs.plugin.services
 
+import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.PsiClass
+import com.intellij.psi.PsiElement
+import com.intellij.psi.SmartPointerManager
 import com.netflix.dgs.plugin.*
 import org.jetbrains.kotlin.psi.KtClassOrObject
-import java.util.concurrent.CopyOnWriteArraySet
 
-class DgsComponentIndex {
-    val dataFetchers: MutableSet<DgsDataFetcher> = CopyOnWriteArraySet()
-    val entityFetchers: MutableSet<DgsEntityFetcher> = CopyOnWriteArraySet()
-    val scalars: MutableSet<DgsScalar> = CopyOnWriteArraySet()
-    val runtimeWirings: MutableSet<DgsRuntimeWiring> = CopyOnWriteArraySet()
-    val customContexts: MutableSet<DgsCustomContext> = CopyOnWriteArraySet()
-    val directives: MutableSet<DgsDirective> = CopyOnWriteArraySet()
-    val dataLoaders: MutableSet<DgsDataLoader> = CopyOnWriteArraySet()
+/**
+ * Immutable snapshot of the DGS components in a project. Instances are created with [Builder] and never change
+ * afterwards, so they can be shared between threads once published.
+ */
+class DgsComponentIndex private constructor(builder: Builder) {
+    val dataFetchers: List<DgsDataFetcher> = builder.dataFetchers.toList()
+    val entityFetchers: List<DgsEntityFetcher> = builder.entityFetchers.toList()
+    val scalars: List<DgsScalar> = builder.scalars.toList()
+    val runtimeWirings: List<DgsRuntimeWiring> = builder.runtimeWirings.toList()
+    val customContexts: List<DgsCustomContext> = builder.customContexts.toList()
+    val directives: List<DgsDirective> = builder.directives.toList()
+    val dataLoaders: List<DgsDataLoader> = builder.dataLoaders.toList()
+
+    // Components do not hold on to PSI, so PSI lookups narrow down to the file first and resolve pointers there
+    private val dataFetchersByFile = dataFetchers.groupBy { it.virtualFile }
+    private val dataFetchersByName = dataFetchers.groupBy { it.name }
+    private val entityFetchersByFile = entityFetchers.groupBy { it.virtualFile }
+    private val files = getAllComponents().mapNotNullTo(HashSet()) { it.virtualFile }
+    private val entityFetchersByName = entityFetchers.groupBy { it.name }
+    private val componentsBySchemaReference: Map<SchemaReference, List<NamedNavigationComponent>> = sequenceOf(
+        dataFetchers.asSequence().mapNotNull { component -> component.schemaReference?.let { it to component } },
+        entityFetchers.asSequence().mapNotNull { component -> component.schemaReference?.let { it to component } },
+        scalars.asSequence().mapNotNull { component -> component.schemaReference?.let { it to component } },
+        directives.asSequence().mapNotNull { component -> component.schemaReference?.let { it to component } },
+    ).flatten().groupBy({ it.first }, { it.second })
 
     fun getAllComponents(): Set<NamedNavigationComponent> {
         return dataFetchers.asSequence()
@@ -40,12 +59,140 @@ class DgsComponentIndex {
             .plus(dataLoaders.asSequence()).toSet()
     }
 
-    fun addDgsCustomContext(psiClass: Any?) {
-        if (psiClass == null || psiClass !is PsiClass || psiClass !is KtClassOrObject || psiClass.name == null) {
-            return
+    private val componentsByName: Map<String, List<NamedNavigationComponent>> = getAllComponents().groupBy { it.name }
+
+    /**
+     * The number of components, without collecting them as [getAllComponents] does.
+     */
+    val size: Int = dataFetchers.size + entityFetchers.size + scalars.size + runtimeWirings.size +
+            customContexts.size + directives.size + dataLoaders.size
+
+    /**
+     * The distinct names of all components, as shown by Go to Symbol.
+     */
+    val componentNames: Set<String>
+        get() = componentsByName.keys
+
+    fun containsFile(file: VirtualFile): Boolean = file in files
+
+    fun componentFiles(): Set<VirtualFile> = files
+
+    fun findComponentsByName(name: String): List<NamedNavigationComponent> = componentsByName[name].orEmpty()
+
+    fun getComponents(type: DgsComponentType): List<NamedNavigationComponent> = when (type) {
+        DgsComponentType.DATA_FETCHER -> dataFetchers
+        DgsComponentType.DATA_LOADER -> dataLoaders
+        DgsComponentType.ENTITY_FETCHER -> entityFetchers
+        DgsComponentType.SCALAR -> scalars
+        DgsComponentType.RUNTIME_WIRING -> runtimeWirings
+        DgsComponentType.CUSTOM_CONTEXT -> customContexts
+        DgsComponentType.DIRECTIVE -> directives
+    }
+
+    /**
+     * Returns the component types whose components differ from those in [previous].
+     */
+    fun changedTypes(previous: DgsComponentIndex): Set<DgsComponentType> {
+        if (previous === this) {
+            return emptySet()
         }
+        return DgsComponentType.entries.filterTo(LinkedHashSet()) { getComponents(it) != previous.getComponents(it) }
+    }
+
+    fun findDataFetchersInFile(file: VirtualFile): List<DgsDataFetcher> = dataFetchersByFile[file].orEmpty()
+
+    fun findDataFetchersByMethod(psiMethod: PsiElement): List<DgsDataFetcher> =
+        dataFetchersByFile[psiMethod.containingFile?.virtualFile].orEmpty().filter { it.psiMethod == psiMethod }
+
+    fun findDataFetchers(parentType: String, field: String): List<DgsDataFetcher> = dataFetchersByName["$parentType.$field"].orEmpty()
+
+    fun findEntityFetchersInFile(file: VirtualFile): List<DgsEntityFetcher> = entityFetchersByFile[file].orEmpty()
+
+    fun findEntityFetchers(typeName: String): List<DgsEntityFetcher> = entityFetchersByName[typeName].orEmpty()
+
+    /**
+     * Finds the components implementing a schema definition, matched by schema coordinates rather than PSI.
+     */
+    fun findComponentsBySchemaReference(schemaReference: SchemaReference): List<NamedNavigationComponent> =
+        componentsBySchemaReference[schemaReference].orEmpty()
+
+    /**
+     * Collects components for a new [DgsComponentIndex]. A builder is meant to be filled by a single thread, and
+     * duplicates, e.g. from processing both annotations of a `@DgsData.List`, are dropped by hash lookup.
+     */
+    class Builder() {
+        internal val dataFetchers = LinkedHashSet<DgsDataFetcher>()
+        internal val entityFetchers = LinkedHashSet<DgsEntityFetcher>()
+        internal val scalars = LinkedHashSet<DgsScalar>()
+        internal val runtimeWirings = LinkedHashSet<DgsRuntimeWiring>()
+        internal val customContexts = LinkedHashSet<DgsCustomContext>()
+        internal val directives = LinkedHashSet<DgsDirective>()
+        internal val dataLoaders = LinkedHashSet<DgsDataLoader>()
 
-        customContexts.add(DgsCustomContext(psiClass.name!!, psiClass, psiClass.containingFile))
+        /**
+         * Starts from an existing snapshot, leaving out the components declared in [removedFiles].
+         */
+        constructor(previous: DgsComponentIndex, removedFiles: Set<VirtualFile>) : this() {
+            val keep = { component: NamedNavigationComponent ->
+                component.virtualFile.let { it != null && it.isValid && it !in removedFiles }
+            }
+
+            previous.dataFetchers.filterTo(dataFetchers, keep)
+            previous.entityFetchers.filterTo(entityFetchers, keep)
+            previous.scalars.filterTo(scalars, keep)
+            previous.runtimeWirings.filterTo(runtimeWirings, keep)
+            previous.customContexts.filterTo(customContexts, keep)
+            previous.directives.filterTo(directives, keep)
+            previous.dataLoaders.filterTo(dataLoaders, keep)
+        }
+
+        fun addDataFetcher(dataFetcher: DgsDataFetcher) = apply { dataFetchers.add(dataFetcher) }
+
+        fun addEntityFetcher(entityFetcher: DgsEntityFetcher) = apply { entityFetchers.add(entityFetcher) }
+
+        fun addScalar(scalar: DgsScalar) = apply { scalars.add(scalar) }
+
+        fun addRuntimeWiring(runtimeWiring: DgsRuntimeWiring) = apply { runtimeWirings.add(runtimeWiring) }
+
+        fun addDirective(directive: DgsDirective) = apply { directives.add(directive) }
+
+        fun addDataLoader(dataLoader: DgsDataLoader) = apply { dataLoaders.add(dataLoader) }
+
+        fun addDgsCustomContext(psiClass: Any?) = apply {
+            if (psiClass == null || psiClass !is PsiClass || psiClass !is KtClassOrObject || psiClass.name == null) {
+                return@apply
+            }
+
+            customContexts.add(DgsCustomContext(psiClass.name!!, SmartPointerManager.createPointer(psiClass)))
+        }
+
+        fun addAll(index: DgsComponentIndex) = apply {
+            dataFetchers.addAll(index.dataFetchers)
+            entityFetchers.addAll(index.entityFetchers)
+            scalars.addAll(index.scalars)
+            runtimeWirings.addAll(index.runtimeWirings)
+            customContexts.addAll(index.customContexts)
+            directives.addAll(index.directives)
+            dataLoaders.addAll(index.dataLoaders)
+        }
+
+        fun build() = DgsComponentIndex(this)
     }
 
+    companion object {
+        @JvmField
+        val EMPTY = Builder().build()
+
+        /**
+         * Combines the indexes of several modules into one view. A single index is returned as is.
+         */
+        @JvmStatic
+        fun merge(indexes: Collection<DgsComponentIndex>): DgsComponentIndex {
+            return when (indexes.size) {
+                0 -> EMPTY
+                1 -> indexes.first()
+                else -> indexes.fold(Builder()) { builder, index -> builder.addAll(index) }.build()
+            }
+        }
+    }
 }
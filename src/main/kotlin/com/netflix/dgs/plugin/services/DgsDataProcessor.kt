@@ -17,19 +17,22 @@
 package com.netflix.dgs.plugin.services
 
 import com.intellij.psi.PsiAnnotation
+import com.intellij.psi.PsiClass
+import com.intellij.psi.PsiFile
+import com.intellij.psi.SmartPointerManager
 import com.intellij.psi.util.PsiTreeUtil
 import com.intellij.util.Processor
-import com.intellij.util.containers.orNull
 import com.netflix.dgs.plugin.*
-import com.netflix.dgs.plugin.services.internal.GraphQLSchemaRegistry
+import org.jetbrains.kotlin.psi.KtAnnotationEntry
+import org.jetbrains.kotlin.psi.KtClassOrObject
 import org.jetbrains.uast.UAnnotation
 import org.jetbrains.uast.UClass
 import org.jetbrains.uast.UMethod
 import org.jetbrains.uast.getParentOfType
+import org.jetbrains.uast.toUElement
 
 class DgsComponentProcessor(
-    private val graphQLSchemaRegistry: GraphQLSchemaRegistry,
-    private val dgsComponentIndex: DgsComponentIndex
+    private val indexBuilder: DgsComponentIndex.Builder
 ) : Processor<UAnnotation> {
     override fun process(uAnnotation: UAnnotation): Boolean {
 
@@ -55,29 +58,51 @@ class DgsComponentProcessor(
         return true
     }
 
+    /**
+     * Processes all DGS components declared in a single file, used to patch the index after the file changed.
+     */
+    fun processFile(psiFile: PsiFile, annotationNames: Set<String>) {
+        PsiTreeUtil.processElements(psiFile) { element ->
+            when (element) {
+                is PsiAnnotation -> if (element.nameReferenceElement?.referenceName in annotationNames) {
+                    (element.toUElement() as? UAnnotation)?.let { process(it) }
+                }
+                is KtAnnotationEntry -> if (element.shortName?.asString() in annotationNames) {
+                    (element.toUElement() as? UAnnotation)?.let { process(it) }
+                }
+                is PsiClass -> {
+                    val superTypes = element.extendsList?.referenceElements.orEmpty() + element.implementsList?.referenceElements.orEmpty()
+                    if (superTypes.any { it.referenceName == "DgsCustomContextBuilder" }) {
+                        indexBuilder.addDgsCustomContext(element)
+                    }
+                }
+                is KtClassOrObject -> if (element.superTypeListEntries.any { it.typeAsUserType?.referencedName == "DgsCustomContextBuilder" }) {
+                    indexBuilder.addDgsCustomContext(element)
+                }
+            }
+            true
+        }
+    }
+
     private fun processScalar(uAnnotation: UAnnotation, uClass: UClass) {
         val nameFromAnnotation = DgsDirective.getNameFromAnnotation(uAnnotation)
         if (nameFromAnnotation != null) {
             val dgsScalar = DgsScalar(
                 nameFromAnnotation,
-                uClass.sourcePsi!!,
-                uAnnotation.sourcePsi!!,
-                uAnnotation.sourcePsi!!.containingFile,
-                graphQLSchemaRegistry.psiForScalar(uAnnotation.sourcePsi!!, nameFromAnnotation).orNull()
+                SmartPointerManager.createPointer(uAnnotation.sourcePsi!!),
+                SchemaReference.scalar(nameFromAnnotation)
             )
 
-            dgsComponentIndex.scalars.add(dgsScalar)
+            indexBuilder.addScalar(dgsScalar)
         }
     }
 
     private fun processRuntimeWiring(uMethod: UMethod, uAnnotation: UAnnotation) {
         val dgsRuntimeWiring = DgsRuntimeWiring(
             uMethod.name,
-            uMethod.sourcePsi!!,
-            uAnnotation.sourcePsi!!,
-            uMethod.sourcePsi!!.containingFile
+            SmartPointerManager.createPointer(uAnnotation.sourcePsi!!)
         )
-        dgsComponentIndex.runtimeWirings.add(dgsRuntimeWiring)
+        indexBuilder.addRuntimeWiring(dgsRuntimeWiring)
     }
 
     private fun processDirective(uAnnotation: UAnnotation, uClass: UClass) {
@@ -85,13 +110,11 @@ class DgsComponentProcessor(
         if (nameFromAnnotation != null) {
             val dgsDirective = DgsDirective(
                 nameFromAnnotation,
-                uClass.sourcePsi!!,
-                uAnnotation.sourcePsi!!,
-                uAnnotation.sourcePsi?.containingFile!!,
-                graphQLSchemaRegistry.psiForDirective(uAnnotation.sourcePsi!!, nameFromAnnotation).orNull()
+                SmartPointerManager.createPointer(uAnnotation.sourcePsi!!),
+                SchemaReference.directive(nameFromAnnotation)
             )
 
-            dgsComponentIndex.directives.add(dgsDirective)
+            indexBuilder.addDirective(dgsDirective)
         }
     }
 
@@ -100,11 +123,9 @@ class DgsComponentProcessor(
         if (nameFromAnnotation != null) {
             val dgsDataLoader = DgsDataLoader(
                 nameFromAnnotation,
-                uClass.sourcePsi!!,
-                uAnnotation.sourcePsi!!,
-                uAnnotation.sourcePsi?.containingFile!!
+                SmartPointerManager.createPointer(uAnnotation.sourcePsi!!)
             )
-            dgsComponentIndex.dataLoaders.add(dgsDataLoader)
+            indexBuilder.addDataLoader(dgsDataLoader)
         }
     }
 
@@ -113,13 +134,11 @@ class DgsComponentProcessor(
 
         val dgsEntityFetcher = DgsEntityFetcher(
             field,
-            uMethod.sourcePsi!!,
-            uAnnotation.sourcePsi!!,
-            uAnnotation.sourcePsi?.containingFile!!,
-            graphQLSchemaRegistry.psiForSchemaType(uMethod, "_entities", field)?.orNull()
+            SmartPointerManager.createPointer(uAnnotation.sourcePsi!!),
+            SchemaReference.entity(field)
         )
 
-        dgsComponentIndex.entityFetchers.add(dgsEntityFetcher)
+        indexBuilder.addEntityFetcher(dgsEntityFetcher)
     }
 
     private fun processDataFetcher(uMethod: UMethod, uAnnotation: UAnnotation) {
@@ -132,15 +151,13 @@ class DgsComponentProcessor(
                 //Because we use the stubs index, we might process a @DgsQuery annotation as @DgsData as well, which won't have parentType.
                 if (parentType != null) {
                     val dgsDataFetcher = DgsDataFetcher(
-                        parentType,
-                        field,
-                        uMethod.sourcePsi!!,
-                        it,
-                        uAnnotation.sourcePsi?.containingFile!!,
-                        graphQLSchemaRegistry.psiForSchemaType(uMethod, parentType, field)?.orNull()
+                        parentType.intern(),
+                        field.intern(),
+                        SmartPointerManager.createPointer(it),
+                        SchemaReference.field(parentType, field)
                     )
 
-                    dgsComponentIndex.dataFetchers.add(dgsDataFetcher)
+                    indexBuilder.addDataFetcher(dgsDataFetcher)
                 }
 
             }
@@ -151,15 +168,13 @@ class DgsComponentProcessor(
             //Because we use the stubs index, we might process a @DgsQuery annotation as @DgsData as well, which won't have parentType.
             if (parentType != null) {
                 val dgsDataFetcher = DgsDataFetcher(
-                    parentType,
-                    field,
-                    uMethod.sourcePsi!!,
-                    uAnnotation.sourcePsi!!,
-                    uAnnotation.sourcePsi?.containingFile!!,
-                    graphQLSchemaRegistry.psiForSchemaType(uMethod, parentType, field)?.orNull()
+                    parentType.intern(),
+                    field.intern(),
+                    SmartPointerManager.createPointer(uAnnotation.sourcePsi!!),
+                    SchemaReference.field(parentType, field)
                 )
 
-                dgsComponentIndex.dataFetchers.add(dgsDataFetcher)
+                indexBuilder.addDataFetcher(dgsDataFetcher)
             }
         }
     }
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin.services
+
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.diagnostic.logger
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.registry.Registry
+import com.intellij.psi.HintedPsiElementVisitor
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiElementVisitor
+import com.intellij.util.concurrency.AppExecutorUtil
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.LongAccumulator
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Internal counters, timers and histograms of the plugin, shown by the DGS Index Diagnostics action and logged to
+ * idea.log periodically. Nothing is recorded unless the `dgs.metrics.enabled` registry key is set, so that callers
+ * only pay for a registry lookup when metrics are disabled.
+ */
+class DgsMetrics(private val project: Project) : Disposable {
+    private val enabled = Registry.get(ENABLED_REGISTRY_KEY)
+    private val counters = ConcurrentHashMap<String, LongAdder>()
+    private val histograms = ConcurrentHashMap<String, Histogram>()
+    @Volatile
+    private var loggedRecords = 0L
+    private val logSummaryTask = AppExecutorUtil.getAppScheduledExecutorService()
+        .scheduleWithFixedDelay(::logSummary, LOG_INTERVAL_MINUTES, LOG_INTERVAL_MINUTES, TimeUnit.MINUTES)
+
+    val isEnabled: Boolean
+        get() = enabled.asBoolean()
+
+    fun increment(name: String) {
+        if (isEnabled) {
+            counters.computeIfAbsent(name) { LongAdder() }.increment()
+        }
+    }
+
+    /**
+     * Records a value, e.g. the number of components in a snapshot, in the histogram of the given name.
+     */
+    fun record(name: String, value: Long) {
+        if (isEnabled) {
+            histograms.computeIfAbsent(name) { Histogram("") }.record(value)
+        }
+    }
+
+    /**
+     * Returns a start time for [stopTimer], or 0 if metrics are disabled.
+     */
+    fun startTimer(): Long = if (isEnabled) System.nanoTime() else 0
+
+    fun stopTimer(name: String, start: Long) {
+        if (start != 0L) {
+            histograms.computeIfAbsent(name) { Histogram(" µs") }.record((System.nanoTime() - start) / 1_000)
+        }
+    }
+
+    inline fun <T> time(name: String, action: () -> T): T {
+        val start = startTimer()
+        try {
+            return action()
+        } finally {
+            stopTimer(name, start)
+        }
+    }
+
+    /**
+     * Times the visits of an inspection visitor. The visitor is returned as is when metrics are disabled.
+     */
+    fun timedVisitor(name: String, visitor: PsiElementVisitor): PsiElementVisitor {
+        if (!isEnabled) {
+            return visitor
+        }
+        return TimedVisitor(this, name, visitor)
+    }
+
+    fun summary(): String {
+        if (counters.isEmpty() && histograms.isEmpty()) {
+            return if (isEnabled) "No metrics recorded yet" else "Metrics are disabled, set the $ENABLED_REGISTRY_KEY registry key to record them"
+        }
+        val lines = counters.map { (name, counter) -> "$name: ${counter.sum()}" } +
+                histograms.map { (name, histogram) -> "$name: $histogram" }
+        return lines.sorted().joinToString("\n")
+    }
+
+    fun reset() {
+        counters.clear()
+        histograms.clear()
+    }
+
+    private fun logSummary() {
+        if (!isEnabled || project.isDisposed) {
+            return
+        }
+        val records = counters.values.sumOf { it.sum() } + histograms.values.sumOf { it.count }
+        if (records != loggedRecords) {
+            loggedRecords = records
+            LOG.info("DGS metrics for ${project.name}:\n${summary()}")
+        }
+    }
+
+    override fun dispose() {
+        logSummaryTask.cancel(false)
+    }
+
+    /**
+     * Counts values in power of two buckets, which is enough to tell percentiles apart by an order of magnitude
+     * without keeping the values.
+     */
+    private class Histogram(private val unit: String) {
+        private val counter = LongAdder()
+        private val sum = LongAdder()
+        private val max = LongAccumulator(Math::max, 0)
+        private val buckets = AtomicLongArray(64)
+
+        val count: Long
+            get() = counter.sum()
+
+        fun record(value: Long) {
+            val v = value.coerceAtLeast(0)
+            counter.increment()
+            sum.add(v)
+            max.accumulate(v)
+            buckets.incrementAndGet((64 - java.lang.Long.numberOfLeadingZeros(v)).coerceAtMost(63))
+        }
+
+        private fun percentile(p: Double): Long {
+            val rank = (count * p).toLong().coerceAtLeast(1)
+            var seen = 0L
+            for (i in 0 until buckets.length()) {
+                seen += buckets.get(i)
+                if (seen >= rank) {
+                    return minOf((1L shl i) - 1, max.get())
+                }
+            }
+            return max.get()
+        }
+
+        override fun toString(): String {
+            val count = count
+            val mean = if (count == 0L) 0 else sum.sum() / count
+            return "count=$count, mean=$mean$unit, p50<=${percentile(0.5)}$unit, p99<=${percentile(0.99)}$unit, max=${max.get()}$unit"
+        }
+    }
+
+    private class TimedVisitor(
+        private val metrics: DgsMetrics,
+        private val name: String,
+        private val delegate: PsiElementVisitor,
+    ) : PsiElementVisitor(), HintedPsiElementVisitor {
+        override fun visitElement(element: PsiElement) {
+            metrics.time(name) { element.accept(delegate) }
+        }
+
+        override fun getHintPsiElements(): List<Class<*>> =
+            (delegate as? HintedPsiElementVisitor)?.hintPsiElements ?: listOf(PsiElement::class.java)
+    }
+
+    companion object {
+        const val ENABLED_REGISTRY_KEY = "dgs.metrics.enabled"
+        private const val LOG_INTERVAL_MINUTES = 10L
+        private val LOG = logger<DgsMetrics>()
+
+        @JvmStatic
+        fun getInstance(project: Project): DgsMetrics = project.getService(DgsMetrics::class.java)
+    }
+}
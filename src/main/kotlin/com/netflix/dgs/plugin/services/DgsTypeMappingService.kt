@@ -0,0 +1,383 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin.services
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer
+import com.intellij.lang.jsgraphql.psi.GraphQLListType
+import com.intellij.lang.jsgraphql.psi.GraphQLNonNullType
+import com.intellij.lang.jsgraphql.psi.GraphQLType
+import com.intellij.lang.jsgraphql.psi.GraphQLTypeName
+import com.intellij.lang.jsgraphql.types.schema.idl.TypeDefinitionRegistry
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ModalityState
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.module.Module
+import com.intellij.openapi.module.ModuleManager
+import com.intellij.openapi.module.ModuleUtilCore
+import com.intellij.openapi.project.DumbService
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.project.guessProjectDir
+import com.intellij.openapi.roots.ModuleRootEvent
+import com.intellij.openapi.roots.ModuleRootListener
+import com.intellij.openapi.roots.ModuleRootManager
+import com.intellij.openapi.util.Key
+import com.intellij.openapi.util.ModificationTracker
+import com.intellij.openapi.util.SimpleModificationTracker
+import com.intellij.openapi.util.UserDataHolder
+import com.intellij.openapi.vfs.VfsUtilCore
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.openapi.vfs.newvfs.BulkFileListener
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent
+import com.intellij.psi.JavaPsiFacade
+import com.intellij.psi.PsiClassType
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiNamedElement
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.util.CachedValue
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiUtil
+import com.intellij.util.concurrency.AppExecutorUtil
+import org.jetbrains.uast.UClass
+import org.jetbrains.uast.toUElementOfType
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * Maps GraphQL types to the JVM types that DGS passes to data fetcher arguments.
+ *
+ * Scalars are mapped with the built-in defaults, overridden by the type of the `Coercing` implemented by `@DgsScalar`
+ * classes, overridden in turn by the `typeMapping` of the DGS codegen configuration in `build.gradle`,
+ * `build.gradle.kts` and `pom.xml` files. The codegen configuration applies per module: a type is mapped with the
+ * build file of the module that uses it.
+ *
+ * Build files are read in the background when they or the project roots change, never while highlighting. The mapping
+ * is cached until the codegen configuration or the set of `@DgsScalar` types changes. Type strings are memoized per type
+ * reference, e.g. `[Int!]!`, so schema edits only ever add entries.
+ */
+class DgsTypeMappingService(private val project: Project) : Disposable {
+    private val buildFileTracker = SimpleModificationTracker()
+    private val codegenRequests = AtomicLong()
+    @Volatile
+    private var codegenTypes: CodegenTypes? = null
+    private val scalarTracker = SimpleModificationTracker()
+    private val lastScalarTypes = AtomicReference<Map<String, String>>(emptyMap())
+
+    /**
+     * Changes whenever the mapping may have changed, for caches that depend on mapped types. Only reads counters, the
+     * scalar types are compared when they are resolved again.
+     */
+    val modificationTracker = ModificationTracker { buildFileTracker.modificationCount + scalarTracker.modificationCount }
+
+    init {
+        val connection = project.messageBus.connect(this)
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, object : BulkFileListener {
+            override fun after(events: List<VFileEvent>) {
+                if (events.any { BuildFiles.isBuildFile(it.path) }) {
+                    requestCodegenTypes()
+                }
+            }
+        })
+        connection.subscribe(ModuleRootListener.TOPIC, object : ModuleRootListener {
+            override fun rootsChanged(event: ModuleRootEvent) {
+                requestCodegenTypes()
+            }
+        })
+    }
+
+    /**
+     * Returns the JVM type of a schema type reference, e.g. `List<Integer>` for `[Int]` in Java and `List<Int?>?` in
+     * Kotlin, as used by the given context, e.g. the file of a data fetcher.
+     */
+    fun getJvmType(type: GraphQLType, isJavaType: Boolean, context: PsiElement): String {
+        val mapping = getMapping(context)
+        val types = if (isJavaType) mapping.javaTypes else mapping.kotlinTypes
+        return types.computeIfAbsent(type.text) { StringBuilder().also { appendType(it, type, mapping.scalars, isJavaType) }.toString() }
+    }
+
+    /**
+     * Returns true for scalars declared in the schema that have no known JVM type in the given context.
+     */
+    fun isUnmappedScalar(type: GraphQLType, registry: TypeDefinitionRegistry, context: PsiElement): Boolean {
+        if (type !is GraphQLTypeName) {
+            return false
+        }
+        val name = (type as PsiNamedElement).name ?: return false
+        if (name in getMapping(context).scalars || name == "Int" || name == "IntValue") {
+            return false
+        }
+        return registry.scalars().containsKey(name) || registry.scalarTypeExtensions().containsKey(name)
+    }
+
+    /**
+     * Returns the simple JVM type name of each mapped scalar in the given context.
+     */
+    fun getScalarMapping(context: PsiElement): Map<String, String> = getMapping(context).scalars
+
+    private fun getMapping(context: PsiElement): TypeMapping {
+        // The scalars can only be found once indexing is done
+        if (DumbService.isDumb(project)) {
+            return DEFAULT_MAPPING
+        }
+
+        val module = ModuleUtilCore.findModuleForPsiElement(context) ?: return getMapping(project, null)
+        return getMapping(module, module)
+    }
+
+    private fun getMapping(holder: UserDataHolder, module: Module?): TypeMapping {
+        // the scalar types are brought up to date first, so that a changed set has bumped the tracker checked below
+        val scalars = scalarTypes()
+        return CachedValuesManager.getManager(project).getCachedValue(holder, TYPE_MAPPING, {
+            CachedValueProvider.Result.create(TypeMapping(DEFAULT_TYPES + scalars + codegenTypes(module)), modificationTracker)
+        }, false)
+    }
+
+    /**
+     * Returns the types of the `@DgsScalar` classes. They are resolved again when the component index changes, but the
+     * scalar tracker only changes with the resolved types, so edits elsewhere keep the mapping.
+     */
+    private fun scalarTypes(): Map<String, String> {
+        if (DumbService.isDumb(project)) {
+            return lastScalarTypes.get()
+        }
+
+        val dgsService = project.getService(DgsService::class.java)
+        return CachedValuesManager.getManager(project).getCachedValue(project, SCALAR_TYPES, {
+            val types = scalarTypes(dgsService.dgsComponentIndex)
+            if (lastScalarTypes.getAndSet(types) != types) {
+                scalarTracker.incModificationCount()
+            }
+            CachedValueProvider.Result.create(types, dgsService.indexModificationTracker)
+        }, false)
+    }
+
+    private fun scalarTypes(index: DgsComponentIndex): Map<String, String> {
+        if (index.scalars.isEmpty()) {
+            return emptyMap()
+        }
+        val coercing = JavaPsiFacade.getInstance(project).findClass(COERCING, GlobalSearchScope.allScope(project)) ?: return emptyMap()
+        val factory = JavaPsiFacade.getElementFactory(project)
+        return index.scalars.mapNotNull { scalar ->
+            val psiClass = scalar.psiClass.toUElementOfType<UClass>()?.javaPsi ?: return@mapNotNull null
+            val type = PsiUtil.substituteTypeParameter(factory.createType(psiClass), coercing.qualifiedName!!, 0, false) as? PsiClassType
+            type?.let { scalar.name to it.presentableText }
+        }.toMap()
+    }
+
+    private fun codegenTypes(module: Module?): Map<String, String> {
+        val requested = codegenRequests.get()
+        val loaded = codegenTypes
+        if (loaded?.stamp != requested) {
+            // tests read the build files right away, as the component index is also refreshed inline in tests
+            if (ApplicationManager.getApplication().isUnitTestMode) {
+                return CodegenTypes(requested, loadCodegenTypes()).also { codegenTypes = it }.typesOf(module)
+            }
+            loadCodegenTypesInBackground()
+        }
+        return loaded?.typesOf(module).orEmpty()
+    }
+
+    private fun requestCodegenTypes() {
+        codegenRequests.incrementAndGet()
+        buildFileTracker.incModificationCount()
+    }
+
+    private fun loadCodegenTypesInBackground() {
+        ReadAction.nonBlocking<CodegenTypes> { CodegenTypes(codegenRequests.get(), loadCodegenTypes()) }
+            .expireWith(this)
+            .coalesceBy(this, codegenRequests)
+            .finishOnUiThread(ModalityState.nonModal()) { loaded ->
+                codegenTypes = loaded
+                buildFileTracker.incModificationCount()
+                DaemonCodeAnalyzer.getInstance(project).restart()
+            }
+            .submit(AppExecutorUtil.getAppExecutorService())
+    }
+
+    private fun loadCodegenTypes(): Map<Module, Map<String, String>> {
+        val projectDir = project.guessProjectDir()
+        val typesByBuildFile = HashMap<VirtualFile, Map<String, String>>()
+        val result = HashMap<Module, Map<String, String>>()
+        ModuleManager.getInstance(project).modules.forEach { module ->
+            val types = HashMap<String, String>()
+            ModuleRootManager.getInstance(module).contentRoots.forEach { root ->
+                BuildFiles.find(root, projectDir).forEach { file -> types += typesByBuildFile.getOrPut(file) { BuildFiles.parse(file) } }
+            }
+            if (types.isNotEmpty()) {
+                result[module] = types.mapValues { (_, type) -> CodegenTypeMapping.simpleName(type) }
+            }
+        }
+        return result
+    }
+
+    override fun dispose() {
+    }
+
+    private class TypeMapping(val scalars: Map<String, String>) {
+        val javaTypes = ConcurrentHashMap<String, String>()
+        val kotlinTypes = ConcurrentHashMap<String, String>()
+    }
+
+    private class CodegenTypes(val stamp: Long, private val typesByModule: Map<Module, Map<String, String>>) {
+        fun typesOf(module: Module?): Map<String, String> = module?.let { typesByModule[it] }.orEmpty()
+    }
+
+    private object BuildFiles {
+        const val POM = "pom.xml"
+        val BUILD_FILES = listOf("build.gradle", "build.gradle.kts", POM)
+
+        fun isBuildFile(path: String) = BUILD_FILES.any { path.endsWith("/$it") }
+
+        /**
+         * Returns the build files of the nearest directory at or above a content root that has any, e.g. the
+         * `build.gradle` of a Gradle project for the module of its `main` source set.
+         */
+        fun find(root: VirtualFile, projectDir: VirtualFile?): List<VirtualFile> {
+            var dir: VirtualFile? = root
+            while (dir != null) {
+                val current = dir
+                val files = BUILD_FILES.mapNotNull { current.findChild(it) }
+                if (files.isNotEmpty() || projectDir == null || !VfsUtilCore.isAncestor(projectDir, current, true)) {
+                    return files
+                }
+                dir = current.parent
+            }
+            return emptyList()
+        }
+
+        fun parse(file: VirtualFile): Map<String, String> {
+            val text = VfsUtilCore.loadText(file)
+            return if (file.name == POM) CodegenTypeMapping.parseMaven(text) else CodegenTypeMapping.parseGradle(text)
+        }
+    }
+
+    companion object {
+        private const val COERCING = "graphql.schema.Coercing"
+        private val TYPE_MAPPING = Key.create<CachedValue<TypeMapping>>("dgs.type.mapping")
+        private val SCALAR_TYPES = Key.create<CachedValue<Map<String, String>>>("dgs.scalar.types")
+
+        private val DEFAULT_TYPES = mapOf(
+            "String" to "String",
+            "StringValue" to "String",
+            "Float" to "Double",
+            "FloatValue" to "Double",
+            "Boolean" to "Boolean",
+            "BooleanValue" to "Boolean",
+            "ID" to "String",
+            "IDValue" to "String",
+            "LocalTime" to "LocalTime",
+            "LocalDate" to "LocalDate",
+            "LocalDateTime" to "LocalDateTime",
+            "TimeZone" to "String",
+            "Date" to "LocalDate",
+            "DateTime" to "OffsetDateTime",
+            "Time" to "OffsetTime",
+            "Currency" to "Currency",
+            "Instant" to "Instant",
+            "RelayPageInfo" to "PageInfo",
+            "PageInfo" to "PageInfo",
+            "JSON" to "Object",
+            "Url" to "URL"
+        )
+        private val DEFAULT_MAPPING = TypeMapping(DEFAULT_TYPES)
+
+        @JvmStatic
+        fun getInstance(project: Project): DgsTypeMappingService = project.getService(DgsTypeMappingService::class.java)
+
+        private fun appendType(builder: StringBuilder, type: GraphQLType?, scalars: Map<String, String>, isJavaType: Boolean) {
+            when (type) {
+                is GraphQLTypeName -> {
+                    builder.append(rawType((type as PsiNamedElement).name.orEmpty(), scalars, isJavaType))
+                    if (!isJavaType) builder.append('?')
+                }
+                is GraphQLListType -> {
+                    builder.append("List<")
+                    appendType(builder, type.type, scalars, isJavaType)
+                    builder.append('>')
+                    if (!isJavaType) builder.append('?')
+                }
+                is GraphQLNonNullType -> {
+                    appendType(builder, type.type, scalars, isJavaType)
+                    if (!isJavaType && builder.endsWith('?')) builder.setLength(builder.length - 1)
+                }
+                else -> {}
+            }
+        }
+
+        private fun rawType(typeName: String, scalars: Map<String, String>, isJavaType: Boolean): String {
+            val type = scalars[typeName] ?: if (typeName == "Int" || typeName == "IntValue") "Integer" else typeName
+            return if (!isJavaType && type == "Integer") "Int" else type
+        }
+    }
+}
+
+/**
+ * Reads the `typeMapping` of the DGS codegen Gradle and Maven plugins from the text of a build file, e.g.
+ * `typeMapping = mutableMapOf("DateTime" to "java.time.OffsetDateTime")`, `typeMapping = ["DateTime": "..."]`,
+ * `typeMapping["DateTime"] = "..."` or `<typeMapping><DateTime>...</DateTime></typeMapping>`.
+ */
+internal object CodegenTypeMapping {
+    private val GRADLE_BLOCK = Regex("""typeMapping\s*(?:=|\.putAll\()\s*(?:\w+\s*(?:<[^>]*>)?\s*)?[(\[]""")
+    private val GRADLE_ENTRY = Regex("""["'](\w+)["']\s*(?:to|:)\s*["']([^"']+)["']""")
+    private val GRADLE_ASSIGNMENT = Regex("""typeMapping\s*(?:\[\s*["'](\w+)["']\s*]\s*=|\.put\(\s*["'](\w+)["']\s*,)\s*["']([^"']+)["']""")
+    private val MAVEN_BLOCK = Regex("""<typeMapping>(.*?)</typeMapping>""", RegexOption.DOT_MATCHES_ALL)
+    private val MAVEN_ENTRY = Regex("""<(\w+)>\s*([^<\s]+)\s*</\1>""")
+    private val QUALIFIED_NAME = Regex("""\b(?:[a-z_]\w*\.)+([A-Z]\w*)""")
+
+    fun parseGradle(text: String): Map<String, String> {
+        if (!text.contains("typeMapping")) {
+            return emptyMap()
+        }
+
+        val result = LinkedHashMap<String, String>()
+        GRADLE_BLOCK.findAll(text).forEach { match ->
+            val start = match.range.last
+            val end = closingBracket(text, start)
+            GRADLE_ENTRY.findAll(text.substring(start + 1, end)).forEach { result[it.groupValues[1]] = it.groupValues[2] }
+        }
+        GRADLE_ASSIGNMENT.findAll(text).forEach { result[it.groupValues[1].ifEmpty { it.groupValues[2] }] = it.groupValues[3] }
+        return result
+    }
+
+    fun parseMaven(text: String): Map<String, String> {
+        val result = LinkedHashMap<String, String>()
+        MAVEN_BLOCK.findAll(text).forEach { block ->
+            MAVEN_ENTRY.findAll(block.groupValues[1]).forEach { result[it.groupValues[1]] = it.groupValues[2] }
+        }
+        return result
+    }
+
+    /**
+     * Drops the packages of a mapped type, e.g. `java.util.List<java.time.Instant>` becomes `List<Instant>`, to match
+     * how argument types are presented.
+     */
+    fun simpleName(type: String): String = type.replace(QUALIFIED_NAME, "$1")
+
+    private fun closingBracket(text: String, open: Int): Int {
+        var depth = 0
+        for (i in open until text.length) {
+            when (text[i]) {
+                '(', '[' -> depth++
+                ')', ']' -> if (--depth == 0) return i
+            }
+        }
+        return text.length
+    }
+}
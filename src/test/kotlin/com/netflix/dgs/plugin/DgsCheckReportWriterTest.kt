@@ -0,0 +1,64 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.google.gson.JsonParser
+import com.netflix.dgs.plugin.cli.DgsCheckProblem
+import com.netflix.dgs.plugin.cli.DgsCheckReportWriter
+import com.netflix.dgs.plugin.cli.DgsCheckRule
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import java.io.StringWriter
+import java.nio.file.Path
+
+class DgsCheckReportWriterTest {
+
+    @Test
+    fun testSarifReport() {
+        val output = StringWriter()
+        DgsCheckReportWriter.create(DgsCheckReportWriter.SARIF, output, Path.of("/work/shows")).use { writer ->
+            writer.begin(listOf(DgsCheckRule("DgsComponentInspector", "Missing @DgsComponent")))
+            writer.write(DgsCheckProblem("DgsComponentInspector", "warning", "src/ShowsDataFetcher.java", 4, 14, "Missing @DgsComponent"))
+            writer.end(linkedMapOf("index" to 12L))
+        }
+
+        val run = JsonParser.parseString(output.toString()).asJsonObject["runs"].asJsonArray[0].asJsonObject
+        assertEquals("DgsComponentInspector", run["tool"].asJsonObject["driver"].asJsonObject["rules"].asJsonArray[0].asJsonObject["id"].asString)
+        val result = run["results"].asJsonArray.single().asJsonObject
+        assertEquals("warning", result["level"].asString)
+        val location = result["locations"].asJsonArray[0].asJsonObject["physicalLocation"].asJsonObject
+        assertEquals("src/ShowsDataFetcher.java", location["artifactLocation"].asJsonObject["uri"].asString)
+        assertEquals("SRCROOT", location["artifactLocation"].asJsonObject["uriBaseId"].asString)
+        assertEquals("file:///work/shows/", run["originalUriBaseIds"].asJsonObject["SRCROOT"].asJsonObject["uri"].asString)
+        assertEquals(4, location["region"].asJsonObject["startLine"].asInt)
+        assertEquals(12, run["properties"].asJsonObject["timings"].asJsonObject["index"].asLong)
+    }
+
+    @Test
+    fun testJsonReport() {
+        val output = StringWriter()
+        DgsCheckReportWriter.create(DgsCheckReportWriter.JSON, output, Path.of("/work/shows")).use { writer ->
+            writer.begin(emptyList())
+            writer.write(DgsCheckProblem("DgsEntityFetcherInspector", "warning", "schema.graphqls", 1, 13, "Missing @DgsEntityFetcher"))
+            writer.end(linkedMapOf("open" to 100L))
+        }
+
+        val report = JsonParser.parseString(output.toString()).asJsonObject
+        assertEquals("schema.graphqls", report["problems"].asJsonArray.single().asJsonObject["file"].asString)
+        assertEquals(100, report["timings"].asJsonObject["open"].asLong)
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.intellij.openapi.application.runReadAction
+import com.intellij.psi.PsiAnnotation
+import com.intellij.psi.search.GlobalSearchScope
+import com.netflix.dgs.plugin.services.DgsComponentFileIndex
+import com.netflix.dgs.plugin.services.DgsService
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class DgsComponentFileIndexTest : DgsTestCase() {
+
+    private fun find(type: DgsComponentType, key: String) = runReadAction {
+        DgsComponentFileIndex.findAnnotations(fixture.project, type, key, GlobalSearchScope.projectScope(fixture.project))
+    }
+
+    @Test
+    fun testJavaComponentsAreIndexedByKey() {
+        fixture.configureByFiles("ShowsDataFetcher.java")
+
+        assertEquals(1, find(DgsComponentType.DATA_FETCHER, "Query.shows").size)
+        assertEquals(1, find(DgsComponentType.DATA_FETCHER, "Show.title").size)
+        assertEquals(1, find(DgsComponentType.ENTITY_FETCHER, "Movie").size)
+        assertTrue(find(DgsComponentType.DATA_FETCHER, "Show.showTitle").isEmpty())
+    }
+
+    @Test
+    fun testKotlinComponentsAreIndexedByKey() {
+        fixture.configureByFiles("ReviewsDataFetcher.kt")
+
+        assertEquals(1, find(DgsComponentType.DATA_FETCHER, "Mutation.addReview").size)
+        assertEquals(1, find(DgsComponentType.DATA_FETCHER, "Show.reviews").size)
+        assertEquals(1, find(DgsComponentType.DATA_FETCHER, "Movie.reviews").size)
+        assertTrue(find(DgsComponentType.ENTITY_FETCHER, "Movie").isEmpty())
+    }
+
+    @Test
+    fun testNonLiteralNamesAreResolvedOnLookup() {
+        fixture.configureByFiles("ConstantsDataFetcher.java")
+
+        val rating = find(DgsComponentType.DATA_FETCHER, "Show.rating")
+        assertEquals(1, rating.size)
+        assertEquals("DgsData", runReadAction { (rating.single() as PsiAnnotation).nameReferenceElement?.referenceName })
+        assertEquals(1, find(DgsComponentType.SCALAR, "DateTime").size)
+        assertTrue(find(DgsComponentType.DATA_FETCHER, "Show.showRating").isEmpty())
+    }
+
+    @Test
+    fun testKeysMatchComponentIndex() {
+        fixture.configureByFiles("ShowsDataFetcher.java", "ReviewsDataFetcher.kt", "ConstantsDataFetcher.java")
+        val dgsService = fixture.project.getService(DgsService::class.java)
+
+        val components = runReadAction { dgsService.dgsComponentIndex.getAllComponents() }
+        assertEquals(8, components.size)
+        for (component in components) {
+            assertTrue(find(component.type, component.name).isNotEmpty(), "${component.type} ${component.name} is not in the file index")
+        }
+    }
+}
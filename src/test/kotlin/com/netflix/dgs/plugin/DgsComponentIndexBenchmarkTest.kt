@@ -0,0 +1,147 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.intellij.openapi.application.runReadAction
+import com.intellij.openapi.application.runWriteAction
+import com.intellij.psi.PsiManager
+import com.intellij.psi.SmartPointerManager
+import com.intellij.testFramework.runInEdtAndWait
+import com.netflix.dgs.plugin.services.DgsComponentIndex
+import com.netflix.dgs.plugin.services.DgsComponentProcessor
+import com.netflix.dgs.plugin.services.DgsService
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Tag
+import org.junit.jupiter.api.Test
+
+@Tag("performance")
+class DgsComponentIndexBenchmarkTest : DgsTestCase() {
+
+    @Test
+    fun testBuildTimeGrowsLinearly() {
+        // every fetcher gets its own annotation, like in a real project, spread over 50 files
+        val files = List(50) { i -> addDataFetcher(*Array(1_000) { m -> "field${i}_$m" }, className = "Fetcher$i") }
+
+        val timings = runReadAction {
+            val dataFetchers = files.flatMap { file ->
+                file.classes[0].methods.map { method ->
+                    DgsDataFetcher("Query", method.name, SmartPointerManager.createPointer(method.annotations[0]), null)
+                }
+            }
+            assertEquals(50_000, dataFetchers.size)
+
+            // warm up the JIT before measuring
+            buildIndex(dataFetchers.take(10_000))
+            listOf(1_000, 10_000, 50_000).associateWith { count -> measureBuild(dataFetchers.take(count)) }
+        }
+
+        // A linear build grows about 5x from 10k to 50k fetchers, a quadratic one about 25x.
+        assertTrue(timings.getValue(50_000) < timings.getValue(10_000) * 15, "Index build time grows faster than linear: $timings")
+    }
+
+    @Test
+    fun testJavaRebuildTime() {
+        repeat(200) { i -> addDataFetcher("field$i", className = "Fetcher$i") }
+
+        assertRebuildWithin("Java component index rebuild with 200 data fetchers", budgetMs = 500, expectedDataFetchers = 200)
+    }
+
+    @Test
+    fun testKotlinRebuildTime() {
+        // Unrelated annotations add keys to the Kotlin annotation index that the rebuild must not have to walk
+        repeat(200) { i ->
+            fixture.addFileToProject("Fetcher$i.kt", """
+                import com.netflix.graphql.dgs.DgsComponent
+                import com.netflix.graphql.dgs.DgsQuery
+
+                annotation class Marker$i
+
+                @DgsComponent
+                class Fetcher$i {
+                    @Marker$i
+                    @DgsQuery
+                    fun field$i(): String = "field$i"
+                }
+            """.trimIndent())
+        }
+
+        assertRebuildWithin("Kotlin component index rebuild with 200 data fetchers", budgetMs = 1_000, expectedDataFetchers = 200)
+    }
+
+    @Test
+    fun testRetainedHeapFor10kComponents() {
+        val files = List(200) { i ->
+            val methods = (0 until 50).joinToString("\n") { m ->
+                """
+                    @DgsQuery
+                    public String field${i}_$m() {
+                        return "field${i}_$m";
+                    }
+                """
+            }
+            fixture.addFileToProject("Fetcher$i.java", """
+                import com.netflix.graphql.dgs.DgsComponent;
+                import com.netflix.graphql.dgs.DgsQuery;
+
+                @DgsComponent
+                public class Fetcher$i {
+                    $methods
+                }
+            """.trimIndent()).virtualFile
+        }
+
+        PerformanceBudget.assertRetainedWithin("DgsComponentIndex with 10000 data fetchers", items = 10_000, budgetBytesPerItem = 1_024) {
+            val index = runReadAction {
+                val builder = DgsComponentIndex.Builder()
+                val processor = DgsComponentProcessor(builder)
+                val psiManager = PsiManager.getInstance(fixture.project)
+                files.forEach { processor.processFile(psiManager.findFile(it)!!, setOf("DgsQuery")) }
+                builder.build()
+            }
+            assertEquals(10_000, index.dataFetchers.size)
+
+            // only the index may keep the PSI of the fetcher files reachable while it is measured
+            runInEdtAndWait { runWriteAction { PsiManager.getInstance(fixture.project).dropPsiCaches() } }
+            index
+        }
+    }
+
+    private fun assertRebuildWithin(name: String, budgetMs: Long, expectedDataFetchers: Int) {
+        val dgsService = fixture.project.getService(DgsService::class.java)
+        PerformanceBudget.assertWithin(name, budgetMs, setUp = { dgsService.clearCache() }) {
+            val index = runReadAction { dgsService.dgsComponentIndex }
+            assertEquals(expectedDataFetchers, index.dataFetchers.size)
+        }
+    }
+
+    private fun measureBuild(dataFetchers: List<DgsDataFetcher>): Long {
+        return (1..5).minOf {
+            val start = System.nanoTime()
+            val index = buildIndex(dataFetchers)
+            val elapsed = System.nanoTime() - start
+            assertEquals(dataFetchers.size, index.dataFetchers.size)
+            elapsed
+        }
+    }
+
+    private fun buildIndex(dataFetchers: List<DgsDataFetcher>): DgsComponentIndex {
+        val builder = DgsComponentIndex.Builder()
+        dataFetchers.forEach { builder.addDataFetcher(it) }
+        return builder.build()
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.intellij.openapi.application.WriteAction
+import com.intellij.openapi.application.runReadAction
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.module.JavaModuleType
+import com.intellij.openapi.module.ModuleManager
+import com.intellij.openapi.util.registry.Registry
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiJavaFile
+import com.intellij.testFramework.PsiTestUtil
+import com.intellij.testFramework.runInEdtAndWait
+import com.netflix.dgs.plugin.services.DgsComponentIndex
+import com.netflix.dgs.plugin.services.DgsService
+import com.netflix.dgs.plugin.services.internal.DgsServiceImpl
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotNull
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertNotSame
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Test
+
+class DgsComponentIndexUpdateTest : DgsTestCase() {
+
+    @Test
+    fun testEditedFileIsReindexed() {
+        val showsFile = addDataFetcher()
+        fixture.addFileToProject("ReviewsDataFetcher.java", """
+            import com.netflix.graphql.dgs.DgsComponent;
+            import com.netflix.graphql.dgs.DgsData;
+
+            @DgsComponent
+            public class ReviewsDataFetcher {
+                @DgsData(parentType = "Show", field = "reviews")
+                public String reviews() {
+                    return "reviews";
+                }
+            }
+        """.trimIndent())
+
+        val dgsService = fixture.project.getService(DgsService::class.java)
+        val dataFetcherNames = { runReadAction { dgsService.dgsComponentIndex.dataFetchers.map { it.name }.toSet() } }
+        assertEquals(setOf("Query.shows", "Show.reviews"), dataFetcherNames())
+
+        runInEdtAndWait {
+            WriteCommandAction.runWriteCommandAction(fixture.project) {
+                showsFile.classes[0].methods[0].name = "movies"
+            }
+        }
+
+        assertEquals(setOf("Query.movies", "Show.reviews"), dataFetcherNames())
+        runReadAction {
+            val dgsComponentIndex = dgsService.dgsComponentIndex
+            assertEquals(1, dgsComponentIndex.findDataFetchers("Query", "movies").size)
+            assertEquals(0, dgsComponentIndex.findDataFetchers("Query", "shows").size)
+            assertEquals(1, dgsComponentIndex.findDataFetchersByMethod(showsFile.classes[0].methods[0]).size)
+        }
+    }
+
+    @Test
+    fun testParallelBuildMatchesSequentialBuild() {
+        val reviewsRoot = fixture.tempDirFixture.findOrCreateDir("reviews")
+        val reviewsModule = PsiTestUtil.addModule(fixture.project, JavaModuleType.getModuleType(), "reviews", reviewsRoot)
+        try {
+            PsiTestUtil.addLibrary(reviewsModule, "com.netflix.graphql.dgs:graphql-dgs", "src/test/testdata/lib/", "graphql-dgs-4.9.2.jar")
+            repeat(20) { i ->
+                fixture.addFileToProject("Fetcher$i.java", """
+                    import com.netflix.graphql.dgs.DgsComponent;
+                    import com.netflix.graphql.dgs.DgsData;
+                    import com.netflix.graphql.dgs.DgsQuery;
+
+                    @DgsComponent
+                    public class Fetcher$i {
+                        @DgsQuery
+                        public String field$i() {
+                            return "field$i";
+                        }
+
+                        @DgsData(parentType = "Show", field = "reviews$i")
+                        public String reviews$i() {
+                            return "reviews$i";
+                        }
+                    }
+                """.trimIndent())
+                fixture.addFileToProject("reviews/KotlinFetcher$i.kt", """
+                    import com.netflix.graphql.dgs.DgsComponent
+                    import com.netflix.graphql.dgs.DgsMutation
+
+                    @DgsComponent
+                    class KotlinFetcher$i {
+                        @DgsMutation
+                        fun mutation$i(): String = "mutation$i"
+                    }
+                """.trimIndent())
+            }
+
+            val dgsService = fixture.project.getService(DgsService::class.java)
+            val dataFetcherNames = {
+                dgsService.clearCache()
+                runReadAction { dgsService.dgsComponentIndex.dataFetchers.map { it.name } }
+            }
+
+            Registry.get(DgsServiceImpl.PARALLEL_BUILD_REGISTRY_KEY).setValue(false, fixture.testRootDisposable)
+            val sequential = dataFetcherNames()
+            Registry.get(DgsServiceImpl.PARALLEL_BUILD_REGISTRY_KEY).setValue(true, fixture.testRootDisposable)
+            val parallel = dataFetcherNames()
+
+            assertEquals(60, sequential.size)
+            assertEquals(sequential, parallel)
+        } finally {
+            WriteAction.runAndWait<Throwable> { ModuleManager.getInstance(fixture.project).disposeModule(reviewsModule) }
+        }
+    }
+
+    @Test
+    fun testSchemaPsiFollowsSchemaEdits() {
+        val schemaFile = fixture.addFileToProject("schema.graphqls", """
+            type Query {
+                shows: String
+            }
+        """.trimIndent())
+        addDataFetcher()
+
+        val dgsService = fixture.project.getService(DgsService::class.java)
+        val index = runReadAction { dgsService.dgsComponentIndex }
+        val dataFetcher = index.dataFetchers.single()
+        runReadAction { assertNotNull(dataFetcher.schemaPsi) }
+
+        runInEdtAndWait {
+            WriteCommandAction.runWriteCommandAction(fixture.project) {
+                val documentManager = PsiDocumentManager.getInstance(fixture.project)
+                documentManager.getDocument(schemaFile)!!.setText("type Query {\n    movies: String\n}")
+                documentManager.commitAllDocuments()
+            }
+        }
+
+        runReadAction {
+            // Schema edits re-resolve the reference without rebuilding the component index
+            assertSame(index, dgsService.dgsComponentIndex)
+            assertNull(dataFetcher.schemaPsi)
+        }
+    }
+
+    @Test
+    fun testEditInOneModuleKeepsOtherModuleIndex() {
+        val showsFile = addDataFetcher()
+        val reviewsRoot = fixture.tempDirFixture.findOrCreateDir("reviews")
+        val reviewsModule = PsiTestUtil.addModule(fixture.project, JavaModuleType.getModuleType(), "reviews", reviewsRoot)
+        try {
+            PsiTestUtil.addLibrary(reviewsModule, "com.netflix.graphql.dgs:graphql-dgs", "src/test/testdata/lib/", "graphql-dgs-4.9.2.jar")
+            fixture.addFileToProject("reviews/ReviewsDataFetcher.java", """
+                import com.netflix.graphql.dgs.DgsComponent;
+                import com.netflix.graphql.dgs.DgsQuery;
+
+                @DgsComponent
+                public class ReviewsDataFetcher {
+                    @DgsQuery
+                    public String reviews() {
+                        return "reviews";
+                    }
+                }
+            """.trimIndent())
+
+            val dgsService = fixture.project.getService(DgsService::class.java)
+            val names = { index: DgsComponentIndex -> index.dataFetchers.map { it.name }.toSet() }
+            val reviewsIndex = runReadAction { dgsService.moduleComponentIndexes.getValue(reviewsModule) }
+            runReadAction {
+                assertEquals(setOf("Query.reviews"), names(reviewsIndex))
+                assertEquals(setOf("Query.shows"), names(dgsService.moduleComponentIndexes.getValue(fixture.module)))
+                assertEquals(setOf("Query.shows", "Query.reviews"), names(dgsService.dgsComponentIndex))
+            }
+
+            runInEdtAndWait {
+                WriteCommandAction.runWriteCommandAction(fixture.project) {
+                    showsFile.classes[0].methods[0].name = "movies"
+                }
+            }
+
+            runReadAction {
+                assertEquals(setOf("Query.movies", "Query.reviews"), names(dgsService.dgsComponentIndex))
+                assertSame(reviewsIndex, dgsService.moduleComponentIndexes.getValue(reviewsModule))
+                // schema views are published with the snapshot, the one of the unchanged module is reused
+                assertSame(reviewsIndex, dgsService.getSchemaComponentIndex(reviewsModule))
+                assertEquals(setOf("Query.movies"), names(dgsService.getSchemaComponentIndex(fixture.module)))
+            }
+
+            // a new directory only rebuilds the module it belongs to
+            runInEdtAndWait { fixture.tempDirFixture.findOrCreateDir("shows") }
+            runReadAction {
+                assertEquals(setOf("Query.movies", "Query.reviews"), names(dgsService.dgsComponentIndex))
+                assertSame(reviewsIndex, dgsService.moduleComponentIndexes.getValue(reviewsModule))
+            }
+        } finally {
+            WriteAction.runAndWait<Throwable> { ModuleManager.getInstance(fixture.project).disposeModule(reviewsModule) }
+        }
+    }
+
+    @Test
+    fun testEditsOfFilesWithoutComponentsKeepIndex() {
+        addDataFetcher()
+        val utilFile = fixture.addFileToProject("ShowsUtil.java", """
+            public class ShowsUtil {
+                public static String title() {
+                    return "title";
+                }
+            }
+        """.trimIndent()) as PsiJavaFile
+
+        val dgsService = fixture.project.getService(DgsService::class.java)
+        val index = runReadAction { dgsService.dgsComponentIndex }
+
+        runInEdtAndWait {
+            WriteCommandAction.runWriteCommandAction(fixture.project) {
+                utilFile.classes[0].methods[0].name = "name"
+            }
+        }
+
+        runReadAction { assertSame(index, dgsService.dgsComponentIndex) }
+    }
+
+    @Test
+    fun testChangedTypesIgnoresEditsOutsideComponents() {
+        val showsFile = fixture.addFileToProject("ShowsDataFetcher.java", """
+            import com.netflix.graphql.dgs.DgsComponent;
+            import com.netflix.graphql.dgs.DgsQuery;
+
+            @DgsComponent
+            public class ShowsDataFetcher {
+                @DgsQuery
+                public String shows() {
+                    return "shows";
+                }
+
+                private String helper() {
+                    return "helper";
+                }
+            }
+        """.trimIndent()) as PsiJavaFile
+
+        val dgsService = fixture.project.getService(DgsService::class.java)
+        val first = runReadAction { dgsService.dgsComponentIndex }
+
+        runInEdtAndWait {
+            WriteCommandAction.runWriteCommandAction(fixture.project) {
+                showsFile.classes[0].methods[1].name = "otherHelper"
+            }
+        }
+        val second = runReadAction { dgsService.dgsComponentIndex }
+        assertNotSame(first, second)
+        assertEquals(emptySet<DgsComponentType>(), second.changedTypes(first))
+
+        runInEdtAndWait {
+            WriteCommandAction.runWriteCommandAction(fixture.project) {
+                showsFile.classes[0].methods[0].name = "movies"
+            }
+        }
+        val third = runReadAction { dgsService.dgsComponentIndex }
+        assertEquals(setOf(DgsComponentType.DATA_FETCHER), third.changedTypes(second))
+    }
+}
@@ -16,7 +16,12 @@
 
 package com.netflix.dgs.plugin
 
+import com.intellij.openapi.application.runReadAction
 import com.netflix.dgs.plugin.hints.DgsEntityFetcherInspector
+import com.netflix.dgs.plugin.hints.FederatedEntity
+import com.netflix.dgs.plugin.hints.FederatedEntityTable
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
 import org.junit.jupiter.api.Test
 
 
@@ -37,4 +42,25 @@ class DgsEntityFetcherInspectorTest : DgsTestCase() {
 
         fixture.checkHighlighting()
     }
+
+    @Test
+    fun testWithMixedKeys() {
+        // a key marked resolvable: false in an extension doesn't exclude an entity that has another resolvable key
+        fixture.configureByFiles("FederatedEntityWithMixedKeys.graphql", "MissingDgsEntityFetcher.java")
+        fixture.enableInspections(DgsEntityFetcherInspector::class.java)
+
+        fixture.checkHighlighting()
+    }
+
+    @Test
+    fun testEntityTableMergesExtensions() {
+        val schemaFile = fixture.configureByFiles("FederatedEntityWithExtensions.graphql", "ShowsEntityFetcher.java")[0]
+
+        runReadAction {
+            val entities = FederatedEntityTable.getInstance(schemaFile)
+            assertEquals(FederatedEntity("Show", listOf("id", "title"), resolvable = true, hasEntityFetcher = true), entities["Show"])
+            assertEquals(FederatedEntity("Review", listOf("id"), resolvable = false, hasEntityFetcher = false), entities["Review"])
+            assertNull(entities["Actor"])
+        }
+    }
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.intellij.openapi.application.runReadAction
+import com.netflix.dgs.plugin.hints.DgsFileAnalysis
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotNull
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Test
+
+class DgsFileAnalysisTest : DgsTestCase() {
+
+    @Test
+    fun testAnalysisIsSharedUntilTheNextChange() {
+        fixture.addFileToProject("schema.graphqls", """
+            type Query {
+                shows(titleFilter: String, first: Int!): [String]
+            }
+        """.trimIndent())
+        val file = addDataFetcher()
+
+        runReadAction {
+            val analysis = DgsFileAnalysis.getInstance(file)
+            assertSame(analysis, DgsFileAnalysis.getInstance(file))
+
+            val dataFetcher = analysis.forAnnotation(file.classes[0].methods[0].annotations[0])
+            assertNotNull(dataFetcher?.schemaField)
+            assertEquals(
+                listOf("@InputArgument String titleFilter", "@InputArgument Integer first"),
+                dataFetcher!!.arguments.map { it.hint }
+            )
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.intellij.openapi.application.runReadAction
+import com.intellij.openapi.util.registry.Registry
+import com.netflix.dgs.plugin.services.DgsMetrics
+import com.netflix.dgs.plugin.services.DgsService
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class DgsMetricsTest : DgsTestCase() {
+
+    @Test
+    fun testIndexMetricsOnlyRecordedWhenEnabled() {
+        addDataFetcher()
+        val dgsService = fixture.project.getService(DgsService::class.java)
+        val metrics = DgsMetrics.getInstance(fixture.project)
+        metrics.reset()
+
+        runReadAction { dgsService.dgsComponentIndex }
+        assertFalse(metrics.summary().contains("index.requests"))
+
+        Registry.get(DgsMetrics.ENABLED_REGISTRY_KEY).setValue(true, fixture.testRootDisposable)
+        dgsService.clearCache()
+        runReadAction {
+            dgsService.dgsComponentIndex
+            dgsService.dgsComponentIndex
+        }
+
+        val summary = metrics.summary()
+        assertTrue(summary.contains("index.requests: 2"), summary)
+        assertTrue(summary.contains("index.requests.cached: 1"), summary)
+        assertTrue(summary.contains("index.compute: count=1"), summary)
+        assertTrue(summary.contains("index.components: count=1, mean=1"), summary)
+    }
+}
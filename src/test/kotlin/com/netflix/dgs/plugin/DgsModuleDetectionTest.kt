@@ -0,0 +1,53 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.intellij.openapi.application.runReadAction
+import com.intellij.testFramework.PsiTestUtil
+import com.netflix.dgs.plugin.services.DgsService
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class DgsModuleDetectionTest : DgsTestCase() {
+
+    @Test
+    fun testDetectionFollowsModuleLibraries() {
+        val file = addDataFetcher()
+        val dgsService = fixture.project.getService(DgsService::class.java)
+
+        runReadAction {
+            assertTrue(dgsService.isDgsModule(fixture.module))
+            assertTrue(dgsService.isDgsElement(file))
+            assertTrue(dgsService.isDgsProject(fixture.project))
+            assertFalse(dgsService.isDgsModule(null))
+        }
+
+        PsiTestUtil.removeLibrary(fixture.module, "com.netflix.graphql.dgs:graphql-dgs")
+        try {
+            runReadAction {
+                assertFalse(dgsService.isDgsModule(fixture.module))
+                assertFalse(dgsService.isDgsElement(file))
+                assertFalse(dgsService.isDgsProject(fixture.project))
+            }
+        } finally {
+            PsiTestUtil.addLibrary(fixture.project, fixture.module, "com.netflix.graphql.dgs:graphql-dgs", "src/test/testdata/lib/", "graphql-dgs-4.9.2.jar")
+        }
+
+        runReadAction { assertTrue(dgsService.isDgsModule(fixture.module)) }
+    }
+}
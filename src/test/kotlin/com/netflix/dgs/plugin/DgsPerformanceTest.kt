@@ -0,0 +1,136 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.intellij.codeInspection.LocalInspectionTool
+import com.intellij.openapi.application.runReadAction
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiFile
+import com.intellij.testFramework.runInEdtAndWait
+import com.netflix.dgs.plugin.hints.*
+import com.netflix.dgs.plugin.services.DgsService
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Tag
+import org.junit.jupiter.api.Test
+
+/**
+ * Time budgets on a generated project with 10k data fetchers and a large schema. These run in the performance tier
+ * with `./gradlew testPerformance`, which `check` depends on.
+ */
+@Tag("performance")
+class DgsPerformanceTest : DgsTestCase() {
+    private val project = SyntheticDgsProject(fetchers = 10_000, schemaFiles = 50, extensions = 500, SyntheticDgsProject.Language.JAVA)
+
+    private fun addProject(): Map<String, PsiFile> = project.files().mapValues { (path, text) -> fixture.addFileToProject(path, text) }
+
+    @Test
+    fun testFullIndexBuild() {
+        addProject()
+        val dgsService = fixture.project.getService(DgsService::class.java)
+
+        PerformanceBudget.assertWithin("Full index build", budgetMs = 5_000, setUp = { dgsService.clearCache() }) {
+            val index = runReadAction { dgsService.dgsComponentIndex }
+            assertEquals(10_000, index.dataFetchers.size)
+        }
+    }
+
+    @Test
+    fun testIncrementalReindex() {
+        val file = addProject().getValue("fetchers/Fetcher0.java")
+        val dgsService = fixture.project.getService(DgsService::class.java)
+        runReadAction { dgsService.dgsComponentIndex }
+
+        var edits = 0
+        val edit = {
+            edits++
+            runInEdtAndWait {
+                WriteCommandAction.runWriteCommandAction(fixture.project) {
+                    val documentManager = PsiDocumentManager.getInstance(fixture.project)
+                    val document = documentManager.getDocument(file)!!
+                    document.insertString(document.text.lastIndexOf('}'), """
+                        @DgsData(parentType = "Type0", field = "added$edits")
+                        public Object added$edits() {
+                            return null;
+                        }
+                    """.trimIndent() + "\n")
+                    documentManager.commitAllDocuments()
+                }
+            }
+        }
+
+        PerformanceBudget.assertWithin("Incremental reindex", budgetMs = 200, setUp = edit) {
+            val index = runReadAction { dgsService.dgsComponentIndex }
+            assertEquals(10_000 + edits, index.dataFetchers.size)
+        }
+    }
+
+    @Test
+    fun testSchemaFileMarkers() {
+        val schemaFile = addProject().getValue("schema/schema0.graphqls")
+        fixture.configureFromExistingVirtualFile(schemaFile.virtualFile)
+
+        PerformanceBudget.assertWithin("Markers on a schema file", budgetMs = 3_000) {
+            assertEquals(project.fetchers / project.schemaFiles, fixture.findAllGutters().size)
+        }
+    }
+
+    @Test
+    fun testInspectionsOnLargeClass() {
+        addProject()
+        val methods = (0 until 500).joinToString("\n") {
+            """
+                @DgsData(parentType = "Query", field = "large$it")
+                public String large$it(@InputArgument String id, @InputArgument(name = "filter") String filter) {
+                    return id;
+                }
+            """
+        }
+        // the fetchers implement real schema fields, so the inspections resolve them as they would in a project
+        val fields = (0 until 500).joinToString("\n") { "    large$it(id: String, filter: String): String" }
+        fixture.addFileToProject("schema/large.graphqls", "extend type Query {\n$fields\n}\n")
+        val largeClass = fixture.addFileToProject("LargeDataFetcher.java", """
+            import com.netflix.graphql.dgs.DgsComponent;
+            import com.netflix.graphql.dgs.DgsData;
+            import com.netflix.graphql.dgs.InputArgument;
+
+            @DgsComponent
+            public class LargeDataFetcher {
+                $methods
+            }
+        """.trimIndent())
+        fixture.configureFromExistingVirtualFile(largeClass.virtualFile)
+
+        val inspections: List<LocalInspectionTool> = listOf(
+            DgsComponentInspector(),
+            DgsDataSimplifyingInspector(),
+            DgsFieldSimplifyingInspector(),
+            DgsInputArgumentInspector(),
+            DgsInputArgumentValidationInspector(),
+        )
+        inspections.forEach { inspection ->
+            fixture.enableInspections(inspection)
+            try {
+                PerformanceBudget.assertWithin("${inspection.javaClass.simpleName} on a class with 500 data fetchers", budgetMs = 2_000) {
+                    fixture.doHighlighting()
+                }
+            } finally {
+                fixture.disableInspections(inspection)
+            }
+        }
+    }
+}
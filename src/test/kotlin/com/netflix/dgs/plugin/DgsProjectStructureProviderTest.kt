@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.intellij.openapi.application.runReadAction
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.psi.PsiMethod
+import com.intellij.testFramework.runInEdtAndWait
+import com.netflix.dgs.plugin.provider.DgsComponentsRootNode
+import com.netflix.dgs.plugin.provider.DgsNamedRootNode
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+
+class DgsProjectStructureProviderTest : DgsTestCase() {
+
+    @Test
+    fun testDataFetchersAreGroupedByParentType() {
+        fixture.addFileToProject("ShowsDataFetcher.java", """
+            import com.netflix.graphql.dgs.DgsComponent;
+            import com.netflix.graphql.dgs.DgsData;
+            import com.netflix.graphql.dgs.DgsQuery;
+
+            @DgsComponent
+            public class ShowsDataFetcher {
+                @DgsQuery
+                public String shows() {
+                    return "shows";
+                }
+
+                @DgsQuery
+                public String movies() {
+                    return "movies";
+                }
+
+                @DgsData(parentType = "Show", field = "title")
+                public String title() {
+                    return "title";
+                }
+            }
+        """.trimIndent())
+
+        val groups = runReadAction {
+            DgsNamedRootNode(fixture.project, null, "Data fetchers", DgsComponentType.DATA_FETCHER).children.associate { group ->
+                group.value to group.children.map { it.value }
+            }
+        }
+
+        assertEquals(
+            mapOf("Data fetchers/Query" to listOf("movies", "shows"), "Data fetchers/Show" to listOf("title")),
+            groups
+        )
+    }
+
+    @Test
+    fun testRootNodeCountsAllComponents() {
+        val showsFile = addDataFetcher()
+        val rootCount = {
+            runReadAction {
+                val node = DgsComponentsRootNode(fixture.project, null)
+                node.update()
+                node.presentation.coloredText.single().toolTip
+            }
+        }
+        assertEquals("1 component", rootCount())
+
+        runInEdtAndWait {
+            WriteCommandAction.runWriteCommandAction(fixture.project) {
+                val showsClass = showsFile.classes[0]
+                showsClass.add(showsClass.methods[0].copy().also { (it as PsiMethod).name = "movies" })
+            }
+        }
+
+        assertEquals("2 components", rootCount())
+    }
+}
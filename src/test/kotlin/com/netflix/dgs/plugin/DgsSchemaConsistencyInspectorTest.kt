@@ -0,0 +1,41 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.intellij.codeInspection.ex.GlobalInspectionToolWrapper
+import com.netflix.dgs.plugin.hints.DgsSchemaConsistencyInspector
+import org.junit.jupiter.api.Test
+
+class DgsSchemaConsistencyInspectorTest : DgsTestCase() {
+
+    // root fields without a data fetcher, and data fetchers for fields missing from the schema
+    @Test
+    fun testSchemaAndComponentsOutOfSync() {
+        fixture.testInspection("consistency", GlobalInspectionToolWrapper(DgsSchemaConsistencyInspector()))
+    }
+
+    // entities with a resolvable key but no entity fetcher
+    @Test
+    fun testMissingEntityFetchers() {
+        fixture.testInspection("entityFetchers", GlobalInspectionToolWrapper(DgsSchemaConsistencyInspector()))
+    }
+
+    @Test
+    fun testUndeclaredScalarsAndDirectives() {
+        fixture.testInspection("scalarsAndDirectives", GlobalInspectionToolWrapper(DgsSchemaConsistencyInspector()))
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.runReadAction
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.psi.PsiJavaFile
+import com.intellij.testFramework.runInEdtAndWait
+import com.intellij.openapi.util.registry.Registry
+import com.netflix.dgs.plugin.services.DgsComponentIndex
+import com.netflix.dgs.plugin.services.DgsMetrics
+import com.netflix.dgs.plugin.services.DgsService
+import com.netflix.dgs.plugin.services.internal.DgsServiceImpl
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+class DgsServiceConcurrencyTest : DgsTestCase() {
+
+    @Test
+    fun testConcurrentCallersWhileEditing() {
+        val fileCount = 20
+        val editCount = 50
+        val files = addFetchers(fileCount)
+
+        val dgsService = fixture.project.getService(DgsService::class.java)
+        val running = AtomicBoolean(true)
+        val failures = ConcurrentLinkedQueue<Throwable>()
+
+        val callers = (0 until 8).map {
+            ApplicationManager.getApplication().executeOnPooledThread {
+                try {
+                    while (running.get()) {
+                        val names = runReadAction { dgsService.dgsComponentIndex.dataFetchers.map { it.name } }
+                        // every snapshot has exactly one fetcher per file, whatever edit it reflects
+                        assertEquals(fileCount, names.size)
+                        assertEquals(fileCount, names.toSet().size)
+                    }
+                } catch (e: Throwable) {
+                    failures.add(e)
+                }
+            }
+        }
+
+        repeat(editCount) { edit ->
+            runInEdtAndWait {
+                WriteCommandAction.runWriteCommandAction(fixture.project) {
+                    files[edit % fileCount].classes[0].methods[0].name = "edited$edit"
+                }
+            }
+        }
+
+        running.set(false)
+        callers.forEach { it.get(30, TimeUnit.SECONDS) }
+        assertTrue(failures.isEmpty()) { failures.joinToString("\n") }
+
+        val expected = (0 until fileCount).map { file -> "Query.edited${(0 until editCount).last { it % fileCount == file }}" }.toSet()
+        assertEquals(expected, runReadAction { dgsService.dgsComponentIndex.dataFetchers.map { it.name }.toSet() })
+    }
+
+    @Test
+    fun testScheduledRefreshIsSharedByConcurrentCallers() {
+        val file = addFetchers(1).single()
+        val dgsService = scheduledDgsService()
+        val metrics = DgsMetrics.getInstance(fixture.project)
+        dgsService.refreshDgsComponentIndex().get(30, TimeUnit.SECONDS)
+        Registry.get(DgsMetrics.ENABLED_REGISTRY_KEY).setValue(true, fixture.testRootDisposable)
+        metrics.reset()
+
+        runInEdtAndWait {
+            WriteCommandAction.runWriteCommandAction(fixture.project) {
+                file.classes[0].methods[0].name = "edited"
+            }
+        }
+
+        val start = CountDownLatch(1)
+        val refreshes = (0 until 8).map {
+            ApplicationManager.getApplication().executeOnPooledThread<CompletableFuture<DgsComponentIndex>> {
+                start.await()
+                dgsService.refreshDgsComponentIndex()
+            }
+        }
+        start.countDown()
+        val futures = refreshes.map { it.get(30, TimeUnit.SECONDS) }
+
+        // all callers share the one debounced rebuild, which patches the edited file once
+        futures.forEach { assertSame(futures[0], it) }
+        val index = futures[0].get(30, TimeUnit.SECONDS)
+        assertEquals(listOf("Query.edited"), index.dataFetchers.map { it.name })
+        assertTrue(metrics.summary().contains("index.modulePatches: 1"), metrics.summary())
+    }
+
+    @Test
+    fun testScheduledRefreshPublishesLatestEdits() {
+        val fileCount = 20
+        val editCount = 50
+        val files = addFetchers(fileCount)
+        val dgsService = scheduledDgsService()
+        dgsService.refreshDgsComponentIndex().get(30, TimeUnit.SECONDS)
+
+        val running = AtomicBoolean(true)
+        val failures = ConcurrentLinkedQueue<Throwable>()
+        val callers = (0 until 8).map {
+            ApplicationManager.getApplication().executeOnPooledThread {
+                try {
+                    while (running.get()) {
+                        // rebuilds are cancelled and restarted by the edits, every published snapshot is still complete
+                        val names = dgsService.refreshDgsComponentIndex().get(30, TimeUnit.SECONDS).dataFetchers.map { it.name }
+                        assertEquals(fileCount, names.size)
+                        assertEquals(fileCount, names.toSet().size)
+                    }
+                } catch (e: Throwable) {
+                    failures.add(e)
+                }
+            }
+        }
+
+        repeat(editCount) { edit ->
+            runInEdtAndWait {
+                WriteCommandAction.runWriteCommandAction(fixture.project) {
+                    files[edit % fileCount].classes[0].methods[0].name = "edited$edit"
+                }
+            }
+        }
+
+        running.set(false)
+        callers.forEach { it.get(30, TimeUnit.SECONDS) }
+        assertTrue(failures.isEmpty()) { failures.joinToString("\n") }
+
+        val expected = (0 until fileCount).map { file -> "Query.edited${(0 until editCount).last { it % fileCount == file }}" }.toSet()
+        val published = dgsService.refreshDgsComponentIndex().get(30, TimeUnit.SECONDS)
+        assertEquals(expected, published.dataFetchers.map { it.name }.toSet())
+    }
+
+    private fun scheduledDgsService(): DgsService {
+        val dgsService = fixture.project.getService(DgsService::class.java)
+        (dgsService as DgsServiceImpl).useScheduledRefresh(fixture.testRootDisposable)
+        return dgsService
+    }
+
+    private fun addFetchers(count: Int): List<PsiJavaFile> = (0 until count).map { i -> addDataFetcher("field$i", className = "Fetcher$i") }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.intellij.navigation.NavigationItem
+import com.intellij.openapi.application.runReadAction
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.util.CommonProcessors
+import com.intellij.util.indexing.FindSymbolParameters
+import com.netflix.dgs.plugin.navigation.DgsSymbolContributor
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class DgsSymbolContributorTest : DgsTestCase() {
+
+    @Test
+    fun testNamesAndItemsComeFromTheIndex() {
+        addDataFetcher("shows", "movies")
+
+        val contributor = DgsSymbolContributor()
+        val names = CommonProcessors.CollectProcessor<String>()
+        val items = CommonProcessors.CollectProcessor<NavigationItem>()
+        runReadAction {
+            contributor.processNames(names, GlobalSearchScope.projectScope(fixture.project), null)
+            contributor.processElementsWithName("Query.shows", items, FindSymbolParameters.wrap("shows", fixture.project, false))
+        }
+
+        assertTrue(names.results.containsAll(listOf("Query.shows", "Query.movies")))
+        assertEquals(listOf("Query.shows"), items.results.map { it.name })
+    }
+}
@@ -18,6 +18,7 @@ package com.netflix.dgs.plugin
 
 import com.intellij.openapi.Disposable
 import com.intellij.openapi.module.Module
+import com.intellij.psi.PsiJavaFile
 import com.intellij.testFramework.PsiTestUtil
 import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase5
 import org.junit.jupiter.api.BeforeEach
@@ -40,5 +41,29 @@ abstract class DgsTestCase : LightJavaCodeInsightFixtureTestCase5() {
         PsiTestUtil.addLibrary(projectDisposable, module, libraryName, "src/test/testdata/lib/", libraryJarName)
     }
 
+    /**
+     * Adds a Java DGS component with a `@DgsQuery` method for each of the given fields, `ShowsDataFetcher.shows()` by
+     * default.
+     */
+    protected fun addDataFetcher(vararg fields: String = arrayOf("shows"), className: String = "ShowsDataFetcher"): PsiJavaFile {
+        val methods = fields.joinToString("\n\n") { field ->
+            """
+                |    @DgsQuery
+                |    public String $field() {
+                |        return "$field";
+                |    }
+            """.trimMargin()
+        }
+        return fixture.addFileToProject("$className.java", """
+            |import com.netflix.graphql.dgs.DgsComponent;
+            |import com.netflix.graphql.dgs.DgsQuery;
+            |
+            |@DgsComponent
+            |public class $className {
+            |$methods
+            |}
+        """.trimMargin()) as PsiJavaFile
+    }
+
     override fun getTestDataPath() = Paths.get("src/test/testdata/" + this::class.java.simpleName).toAbsolutePath().toString()
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.intellij.lang.jsgraphql.psi.GraphQLInputValueDefinition
+import com.intellij.lang.jsgraphql.psi.impl.GraphQLIdentifierImpl
+import com.intellij.lang.jsgraphql.schema.GraphQLSchemaProvider
+import com.intellij.openapi.application.WriteAction
+import com.intellij.openapi.application.runReadAction
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.module.JavaModuleType
+import com.intellij.openapi.module.ModuleManager
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.testFramework.PsiTestUtil
+import com.intellij.testFramework.runInEdtAndWait
+import com.netflix.dgs.plugin.services.CodegenTypeMapping
+import com.netflix.dgs.plugin.services.DgsTypeMappingService
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class DgsTypeMappingServiceTest : DgsTestCase() {
+
+    @Test
+    fun testTypesMappedFromCodegenConfigAndScalars() {
+        fixture.addFileToProject("build.gradle.kts", """
+            tasks.generateJava {
+                typeMapping = mutableMapOf("Money" to "com.acme.Money")
+            }
+        """.trimIndent())
+        fixture.addFileToProject("graphql/schema/Coercing.java", """
+            package graphql.schema;
+
+            public interface Coercing<I, O> {}
+        """.trimIndent())
+        fixture.addFileToProject("InstantScalar.java", """
+            import com.netflix.graphql.dgs.DgsScalar;
+            import graphql.schema.Coercing;
+            import java.time.Instant;
+
+            @DgsScalar(name = "Timestamp")
+            public class InstantScalar implements Coercing<Instant, String> {}
+        """.trimIndent())
+        val schema = fixture.addFileToProject("schema.graphqls", """
+            scalar Money
+            scalar Timestamp
+            scalar Unknown
+
+            type Query {
+                shows(first: Int!, prices: [Money!]!, since: Timestamp, other: Unknown): [String]
+            }
+        """.trimIndent())
+
+        runReadAction {
+            val service = DgsTypeMappingService.getInstance(fixture.project)
+            val registry = GraphQLSchemaProvider.getInstance(fixture.project).getSchemaInfo(schema).registry
+            val arguments = PsiTreeUtil.findChildrenOfType(schema, GraphQLInputValueDefinition::class.java).associate { (it.nameIdentifier as GraphQLIdentifierImpl).name to it.type!! }
+
+            assertEquals("Integer", service.getJvmType(arguments.getValue("first"), true, schema))
+            assertEquals("Int", service.getJvmType(arguments.getValue("first"), false, schema))
+            assertEquals("List<Money>", service.getJvmType(arguments.getValue("prices"), true, schema))
+            assertEquals("List<Money>", service.getJvmType(arguments.getValue("prices"), false, schema))
+            assertEquals("Instant?", service.getJvmType(arguments.getValue("since"), false, schema))
+            assertFalse(service.isUnmappedScalar(arguments.getValue("prices"), registry, schema))
+            assertFalse(service.isUnmappedScalar(arguments.getValue("since"), registry, schema))
+            assertTrue(service.isUnmappedScalar(arguments.getValue("other"), registry, schema))
+        }
+    }
+
+    @Test
+    fun testCodegenTypeMappingIsPerModule() {
+        fixture.addFileToProject("build.gradle.kts", """
+            tasks.generateJava {
+                typeMapping = mutableMapOf("Money" to "com.acme.Money")
+            }
+        """.trimIndent())
+        val schema = fixture.addFileToProject("schema.graphqls", """
+            scalar Money
+
+            type Query {
+                prices(price: Money): [String]
+            }
+        """.trimIndent())
+        val billingRoot = fixture.tempDirFixture.findOrCreateDir("billing")
+        val billingModule = PsiTestUtil.addModule(fixture.project, JavaModuleType.getModuleType(), "billing", billingRoot)
+        try {
+            fixture.addFileToProject("billing/build.gradle.kts", """
+                tasks.generateJava {
+                    typeMapping = mutableMapOf("Money" to "java.math.BigDecimal")
+                }
+            """.trimIndent())
+            val billingFetcher = fixture.addFileToProject("billing/BillingDataFetcher.java", "public class BillingDataFetcher {}")
+
+            runReadAction {
+                val service = DgsTypeMappingService.getInstance(fixture.project)
+                val price = PsiTreeUtil.findChildOfType(schema, GraphQLInputValueDefinition::class.java)!!.type!!
+                assertEquals("Money", service.getJvmType(price, true, schema))
+                assertEquals("BigDecimal", service.getJvmType(price, true, billingFetcher))
+            }
+        } finally {
+            WriteAction.runAndWait<Throwable> { ModuleManager.getInstance(fixture.project).disposeModule(billingModule) }
+        }
+    }
+
+    @Test
+    fun testMappingIsKeptOnEditsOutsideScalars() {
+        val showsFile = addDataFetcher()
+        val service = DgsTypeMappingService.getInstance(fixture.project)
+        val modificationCount = runReadAction {
+            service.getScalarMapping(showsFile)
+            service.modificationTracker.modificationCount
+        }
+
+        runInEdtAndWait {
+            WriteCommandAction.runWriteCommandAction(fixture.project) {
+                showsFile.classes[0].methods[0].name = "movies"
+            }
+        }
+
+        // the component index changed, but not the scalars, so caches of mapped types stay valid
+        runReadAction {
+            service.getScalarMapping(showsFile)
+            assertEquals(modificationCount, service.modificationTracker.modificationCount)
+        }
+    }
+
+    @Test
+    fun testCodegenTypeMappingParsing() {
+        assertEquals(
+            mapOf("DateTime" to "java.time.OffsetDateTime", "Url" to "java.net.URL"),
+            CodegenTypeMapping.parseGradle("""
+                generateJava {
+                    typeMapping = ['DateTime': 'java.time.OffsetDateTime']
+                    typeMapping["Url"] = "java.net.URL"
+                }
+            """.trimIndent())
+        )
+        assertEquals(
+            mapOf("DateTime" to "java.time.OffsetDateTime"),
+            CodegenTypeMapping.parseMaven("""
+                <configuration>
+                    <typeMapping>
+                        <DateTime>java.time.OffsetDateTime</DateTime>
+                    </typeMapping>
+                </configuration>
+            """.trimIndent())
+        )
+        assertEquals("List<Instant>", CodegenTypeMapping.simpleName("java.util.List<java.time.Instant>"))
+    }
+}
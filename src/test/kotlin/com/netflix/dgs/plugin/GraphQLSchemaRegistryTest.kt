@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.intellij.openapi.application.runReadAction
+import com.netflix.dgs.plugin.services.DgsService
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+
+class GraphQLSchemaRegistryTest : DgsTestCase() {
+
+    @Test
+    fun testResolvesFieldsFromEveryExtension() {
+        fixture.addFileToProject("schema.graphqls", """
+            type Query {
+                shows: [Show]
+            }
+
+            type Show {
+                title: String
+            }
+
+            interface Node {
+                id: ID
+            }
+        """.trimIndent())
+        fixture.addFileToProject("extensions.graphqls", """
+            extend type Query {
+                movies: [String]
+            }
+
+            extend interface Node {
+                name: String
+            }
+
+            extend interface Node {
+                createdAt: String
+            }
+        """.trimIndent())
+        fixture.addFileToProject("NodeDataFetcher.java", """
+            import com.netflix.graphql.dgs.DgsComponent;
+            import com.netflix.graphql.dgs.DgsData;
+            import com.netflix.graphql.dgs.DgsQuery;
+
+            @DgsComponent
+            public class NodeDataFetcher {
+                @DgsQuery
+                public String shows() { return null; }
+
+                @DgsQuery
+                public String movies() { return null; }
+
+                @DgsData(parentType = "Show", field = "title")
+                public String title() { return null; }
+
+                @DgsData(parentType = "Node", field = "createdAt")
+                public String createdAt() { return null; }
+
+                @DgsData(parentType = "Node", field = "missing")
+                public String missing() { return null; }
+            }
+        """.trimIndent())
+
+        val dgsService = fixture.project.getService(DgsService::class.java)
+        val resolved = runReadAction {
+            dgsService.dgsComponentIndex.dataFetchers.associate { it.name to (it.schemaPsi != null) }
+        }
+
+        assertEquals(
+            mapOf(
+                "Query.shows" to true,
+                "Query.movies" to true,
+                "Show.title" to true,
+                "Node.createdAt" to true,
+                "Node.missing" to false
+            ), resolved
+        )
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import org.junit.jupiter.api.Assertions.assertTrue
+
+/**
+ * Time and memory budgets for the performance tests. An action is warmed up, then timed a few times, and the fastest
+ * attempt must stay within the budget. Retained memory is measured per item, and the median of a few attempts must stay
+ * within the budget, so that a single noisy GC doesn't fail the run. Budgets can be scaled for slower machines with
+ * `./gradlew testPerformance -Pdgs.performance.budget.scale=2`.
+ */
+object PerformanceBudget {
+    private val scale = System.getProperty("dgs.performance.budget.scale")?.toDoubleOrNull() ?: 1.0
+
+    fun assertWithin(
+        name: String,
+        budgetMs: Long,
+        warmups: Int = 2,
+        attempts: Int = 5,
+        setUp: () -> Unit = {},
+        action: () -> Unit,
+    ) {
+        repeat(warmups) {
+            setUp()
+            action()
+        }
+
+        val fastest = (1..attempts).minOf {
+            setUp()
+            val start = System.nanoTime()
+            action()
+            System.nanoTime() - start
+        } / 1_000_000
+        val budget = (budgetMs * scale).toLong()
+
+        println("$name: $fastest ms, budget $budget ms")
+        assertTrue(fastest <= budget, "$name took $fastest ms, over its budget of $budget ms")
+    }
+
+    fun assertRetainedWithin(
+        name: String,
+        items: Int,
+        budgetBytesPerItem: Long,
+        attempts: Int = 3,
+        build: () -> Any,
+    ) {
+        val perItem = List(attempts) {
+            val holder = arrayOfNulls<Any>(1)
+            holder[0] = build()
+            val withValue = usedHeapAfterGc()
+            holder[0] = null
+            (withValue - usedHeapAfterGc()) / items
+        }.sorted()[attempts / 2]
+        val budget = (budgetBytesPerItem * scale).toLong()
+
+        println("$name: $perItem bytes per item, budget $budget bytes")
+        assertTrue(perItem <= budget, "$name retains $perItem bytes per item, over its budget of $budget bytes")
+    }
+
+    private fun usedHeapAfterGc(): Long {
+        val runtime = Runtime.getRuntime()
+        repeat(3) {
+            System.gc()
+            Thread.sleep(100)
+        }
+        return runtime.totalMemory() - runtime.freeMemory()
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+import com.intellij.openapi.application.WriteAction
+import com.intellij.openapi.module.JavaModuleType
+import com.intellij.openapi.module.ModuleManager
+import com.intellij.openapi.roots.ModuleRootModificationUtil
+import com.intellij.testFramework.PsiTestUtil
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+
+class SchemaToDataFetcherMarkerProviderTest : DgsTestCase() {
+
+    @Test
+    fun testGuttersForImplementedDefinitions() {
+        fixture.addFileToProject("ShowsDataFetcher.java", """
+            import com.netflix.graphql.dgs.DgsComponent;
+            import com.netflix.graphql.dgs.DgsData;
+            import com.netflix.graphql.dgs.DgsEntityFetcher;
+            import com.netflix.graphql.dgs.DgsQuery;
+            import java.util.Map;
+
+            @DgsComponent
+            public class ShowsDataFetcher {
+                @DgsQuery
+                public String shows() { return null; }
+
+                @DgsData(parentType = "Show", field = "title")
+                public String title() { return null; }
+
+                @DgsEntityFetcher(name = "Show")
+                public Object show(Map<String, Object> values) { return null; }
+            }
+        """.trimIndent())
+        fixture.configureByText("schema.graphqls", """
+            type Query {
+                shows: [Show]
+                movies: [String]
+            }
+
+            type Show @key(fields: "id") {
+                id: ID
+                title: String
+            }
+        """.trimIndent())
+
+        val tooltips = fixture.findAllGutters().map { it.tooltipText }.sortedBy { it }
+        assertEquals(
+            listOf("Navigate to DGS data fetcher", "Navigate to DGS data fetcher", "Navigate to DGS entity fetcher"),
+            tooltips
+        )
+    }
+
+    @Test
+    fun testGuttersOnlyLinkFetchersOfTheSchemaModule() {
+        val reviewsRoot = fixture.tempDirFixture.findOrCreateDir("reviews")
+        val reviewsModule = PsiTestUtil.addModule(fixture.project, JavaModuleType.getModuleType(), "reviews", reviewsRoot)
+        try {
+            PsiTestUtil.addLibrary(reviewsModule, "com.netflix.graphql.dgs:graphql-dgs", "src/test/testdata/lib/", "graphql-dgs-4.9.2.jar")
+            fixture.addFileToProject("reviews/ReviewsDataFetcher.java", """
+                import com.netflix.graphql.dgs.DgsComponent;
+                import com.netflix.graphql.dgs.DgsQuery;
+
+                @DgsComponent
+                public class ReviewsDataFetcher {
+                    @DgsQuery
+                    public String shows() { return null; }
+                }
+            """.trimIndent())
+            val schema = """
+                type Query {
+                    shows: [String]
+                }
+            """.trimIndent()
+
+            // the fetcher lives in an unrelated module, so the schema of this module is not implemented by it
+            fixture.configureByText("schema.graphqls", schema)
+            assertEquals(emptyList<String>(), fixture.findAllGutters().map { it.tooltipText })
+
+            val reviewsSchema = fixture.addFileToProject("reviews/schema.graphqls", schema)
+            fixture.configureFromExistingVirtualFile(reviewsSchema.virtualFile)
+            assertEquals(listOf("Navigate to DGS data fetcher"), fixture.findAllGutters().map { it.tooltipText })
+        } finally {
+            WriteAction.runAndWait<Throwable> { ModuleManager.getInstance(fixture.project).disposeModule(reviewsModule) }
+        }
+    }
+
+    @Test
+    fun testGuttersInSchemaOnlyModuleOfDgsService() {
+        addDataFetcher()
+        val schemaRoot = fixture.tempDirFixture.findOrCreateDir("schema")
+        val schemaModule = PsiTestUtil.addModule(fixture.project, JavaModuleType.getModuleType(), "schema", schemaRoot)
+        try {
+            // the schema module has no DGS library itself, but the DGS module depends on it
+            ModuleRootModificationUtil.addDependency(fixture.module, schemaModule)
+            val schema = fixture.addFileToProject("schema/schema.graphqls", """
+                type Query {
+                    shows: [String]
+                }
+            """.trimIndent())
+            fixture.configureFromExistingVirtualFile(schema.virtualFile)
+
+            assertEquals(listOf("Navigate to DGS data fetcher"), fixture.findAllGutters().map { it.tooltipText })
+        } finally {
+            WriteAction.runAndWait<Throwable> { ModuleManager.getInstance(fixture.project).disposeModule(schemaModule) }
+        }
+    }
+}
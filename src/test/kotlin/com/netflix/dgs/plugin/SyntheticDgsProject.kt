@@ -0,0 +1,114 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.dgs.plugin
+
+/**
+ * Generates the sources of a synthetic DGS project. The output only depends on the parameters, so every run of a
+ * benchmark sees the same files.
+ *
+ * Data fetchers are spread over classes of [FETCHERS_PER_CLASS] methods and point at fields of the object types
+ * declared in the schema files. Each of the [extensions] type extensions adds a field to one of those types.
+ */
+class SyntheticDgsProject(
+    val fetchers: Int,
+    val schemaFiles: Int,
+    val extensions: Int,
+    val language: Language,
+) {
+    enum class Language(val extension: String) { JAVA("java"), KOTLIN("kt") }
+
+    /**
+     * Relative paths and contents of all generated files.
+     */
+    fun files(): Map<String, String> {
+        val files = LinkedHashMap<String, String>()
+        repeat(schemaFiles) { files["schema/schema$it.graphqls"] = schemaFile(it) }
+        (0 until fetchers).chunked(FETCHERS_PER_CLASS).forEachIndexed { index, chunk ->
+            files["fetchers/Fetcher$index.${language.extension}"] = when (language) {
+                Language.JAVA -> javaFetcher(index, chunk)
+                Language.KOTLIN -> kotlinFetcher(index, chunk)
+            }
+        }
+        return files
+    }
+
+    /**
+     * The schema coordinates that the generated data fetchers implement, as parent type and field.
+     */
+    fun coordinates(): List<Pair<String, String>> = (0 until fetchers).map { typeName(it) to "field$it" }
+
+    private fun typeName(fetcher: Int) = "Type${fetcher % schemaFiles}"
+
+    private fun schemaFile(index: Int): String = buildString {
+        appendLine("type Type$index {")
+        (index until fetchers step schemaFiles).forEach { appendLine("    field$it(id: ID!, filter: [String!], first: Int): [Type$index!]!") }
+        appendLine("    id: ID!")
+        appendLine("}")
+        (index until extensions step schemaFiles).forEach {
+            appendLine()
+            appendLine("extend type Type$index {")
+            appendLine("    extension$it(after: String): Type$index")
+            appendLine("}")
+        }
+        if (index == 0) {
+            appendLine()
+            appendLine("type Query {")
+            appendLine("    type0: Type0")
+            appendLine("}")
+        }
+    }
+
+    private fun javaFetcher(index: Int, fetchers: List<Int>): String = buildString {
+        appendLine("package fetchers;")
+        appendLine()
+        appendLine("import com.netflix.graphql.dgs.DgsComponent;")
+        appendLine("import com.netflix.graphql.dgs.DgsData;")
+        appendLine("import com.netflix.graphql.dgs.InputArgument;")
+        appendLine()
+        appendLine("@DgsComponent")
+        appendLine("public class Fetcher$index {")
+        fetchers.forEach {
+            appendLine("    @DgsData(parentType = \"${typeName(it)}\", field = \"field$it\")")
+            appendLine("    public Object field$it(@InputArgument String id) {")
+            appendLine("        return null;")
+            appendLine("    }")
+            appendLine()
+        }
+        appendLine("}")
+    }
+
+    private fun kotlinFetcher(index: Int, fetchers: List<Int>): String = buildString {
+        appendLine("package fetchers")
+        appendLine()
+        appendLine("import com.netflix.graphql.dgs.DgsComponent")
+        appendLine("import com.netflix.graphql.dgs.DgsData")
+        appendLine("import com.netflix.graphql.dgs.InputArgument")
+        appendLine()
+        appendLine("@DgsComponent")
+        appendLine("class Fetcher$index {")
+        fetchers.forEach {
+            appendLine("    @DgsData(parentType = \"${typeName(it)}\", field = \"field$it\")")
+            appendLine("    fun field$it(@InputArgument id: String): Any? = null")
+            appendLine()
+        }
+        appendLine("}")
+    }
+
+    companion object {
+        const val FETCHERS_PER_CLASS = 20
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import com.netflix.graphql.dgs.DgsComponent;
+import com.netflix.graphql.dgs.DgsData;
+import com.netflix.graphql.dgs.DgsScalar;
+
+@DgsComponent
+public class ConstantsDataFetcher {
+    public static final String SHOW = "Show";
+    public static final String RATING = "rating";
+
+    @DgsData(parentType = SHOW, field = RATING)
+    public Integer showRating() {
+        return 5;
+    }
+
+    @DgsScalar(name = "Date" + "Time")
+    public static class DateTimeScalar {
+    }
+}
@@ -0,0 +1,21 @@
+import com.netflix.graphql.dgs.DgsComponent;
+import com.netflix.graphql.dgs.DgsData;
+import com.netflix.graphql.dgs.DgsQuery;
+
+@DgsComponent
+public class ShowsDataFetcher {
+    @DgsQuery
+    public String shows() {
+        return null;
+    }
+
+    @DgsData(parentType = "Show", field = "releaseYear")
+    public Integer releaseYear() {
+        return null;
+    }
+
+    @DgsData(parentType = "Show", field = "title")
+    public String title() {
+        return null;
+    }
+}
@@ -0,0 +1,18 @@
+import com.netflix.graphql.dgs.DgsComponent;
+import com.netflix.graphql.dgs.DgsEntityFetcher;
+import com.netflix.graphql.dgs.DgsQuery;
+import java.util.List;
+import java.util.Map;
+
+@DgsComponent
+public class ShowsDataFetcher {
+    @DgsQuery
+    public List<Object> shows() {
+        return null;
+    }
+
+    @DgsEntityFetcher(name = "Show")
+    public Object show(Map<String, Object> values) {
+        return null;
+    }
+}
@@ -0,0 +1,5 @@
+import com.netflix.graphql.dgs.DgsScalar;
+
+@DgsScalar(name = "DateTime")
+public class DateTimeScalar {
+}
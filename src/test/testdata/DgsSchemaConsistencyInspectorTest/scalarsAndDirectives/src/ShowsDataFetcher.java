@@ -0,0 +1,15 @@
+import com.netflix.graphql.dgs.DgsComponent;
+import com.netflix.graphql.dgs.DgsQuery;
+
+@DgsComponent
+public class ShowsDataFetcher {
+    @DgsQuery
+    public String shows() {
+        return null;
+    }
+
+    @DgsQuery
+    public Object releasedAfter() {
+        return null;
+    }
+}
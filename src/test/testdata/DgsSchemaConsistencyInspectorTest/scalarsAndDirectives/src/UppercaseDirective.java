@@ -0,0 +1,5 @@
+import com.netflix.graphql.dgs.DgsDirective;
+
+@DgsDirective(name = "uppercase")
+public class UppercaseDirective {
+}